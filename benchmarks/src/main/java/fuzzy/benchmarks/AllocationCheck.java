@@ -0,0 +1,119 @@
+package fuzzy.benchmarks;
+
+import casestudy.PatientTriageSystem;
+import fuzzy.defuzzification.AdaptiveCentroidDefuzzification;
+import fuzzy.defuzzification.BisectorDefuzzification;
+import fuzzy.defuzzification.CentroidDefuzzification;
+import fuzzy.defuzzification.DefuzzificationMethod;
+import fuzzy.defuzzification.ExactCentroidDefuzzification;
+import fuzzy.defuzzification.ExactMeanOfMaximumDefuzzification;
+import fuzzy.defuzzification.HeightDefuzzification;
+import fuzzy.defuzzification.MeanOfMaximumDefuzzification;
+import fuzzy.membership.ArrayKernels;
+import fuzzy.system.CompiledSystem;
+import fuzzy.system.EvaluationContext;
+import fuzzy.system.FuzzyLogicSystem;
+import fuzzy.system.IncrementalEvaluator;
+import fuzzy.system.LookupTableSystem;
+import fuzzy.variables.FuzzySet;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Checks that evaluation through an {@link EvaluationContext} allocates
+ * nothing in steady state, using the thread allocation counter of
+ * {@code com.sun.management.ThreadMXBean}. Prints bytes per call for each
+ * configuration and exits with status 1 if any of them allocates.
+ *
+ * Usage: java -cp target/benchmarks.jar fuzzy.benchmarks.AllocationCheck
+ */
+public class AllocationCheck {
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int MEASURED_CALLS = 100_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        double[][] patients = SyntheticSystemGenerator.randomRecords(3, 1024, 42L);
+        for (double[] patient : patients) {
+            patient[0] *= 10.0;
+            patient[1] = 35.0 + patient[1] * 7.0;
+            patient[2] = 60.0 + patient[2] * 140.0;
+        }
+
+        boolean failed = false;
+        failed |= check("centroid", triage(new CentroidDefuzzification()), patients);
+        failed |= check("centroid-kernels", triage(new CentroidDefuzzification(1000, ArrayKernels.get())),
+                patients);
+        failed |= check("mean-of-maximum", triage(new MeanOfMaximumDefuzzification()), patients);
+        failed |= check("exact-mean-of-maximum", triage(new ExactMeanOfMaximumDefuzzification()), patients);
+        failed |= check("exact-centroid", triage(new ExactCentroidDefuzzification()), patients);
+        failed |= check("adaptive-centroid", triage(new AdaptiveCentroidDefuzzification(1e-3)), patients);
+
+        FuzzyLogicSystem sugeno = new PatientTriageSystem().getSystem();
+        Map<String, Double> consequentValues = new HashMap<>();
+        for (FuzzySet set : sugeno.getOutputVariable().getAllFuzzySets()) {
+            double[] domain = set.getMembershipFunction().getDomain();
+            consequentValues.put(set.getName(), (domain[0] + domain[1]) / 2.0);
+        }
+        sugeno.setupSugenoInference(consequentValues);
+        failed |= check("sugeno", sugeno, patients);
+
+        FuzzyLogicSystem synthetic = SyntheticSystemGenerator.generate(8, 15, 2000, 7L);
+        failed |= check("synthetic", synthetic, SyntheticSystemGenerator.randomRecords(8, 1024, 11L));
+
+        CompiledSystem plan = new PatientTriageSystem().getSystem().compile();
+        DefuzzificationMethod[] methods = { new CentroidDefuzzification(), new MeanOfMaximumDefuzzification(),
+                new BisectorDefuzzification(), new HeightDefuzzification() };
+        double[] outputs = new double[methods.length];
+        failed |= measure("evaluate-all", i -> {
+            plan.evaluateAll(patients[i & 1023], methods, outputs);
+            return outputs[0] + outputs[1] + outputs[2] + outputs[3];
+        });
+
+        IncrementalEvaluator incremental = new PatientTriageSystem().getSystem().compile()
+                .newIncrementalEvaluator();
+        failed |= measure("incremental-update", i -> incremental.update(i % 3, patients[i & 1023][i % 3]));
+
+        LookupTableSystem table = new LookupTableSystem(new PatientTriageSystem().getSystem().compile(), 21);
+        failed |= measure("lookup-table", i -> table.evaluate(patients[i & 1023]));
+
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static FuzzyLogicSystem triage(DefuzzificationMethod method) {
+        FuzzyLogicSystem system = new PatientTriageSystem().getSystem();
+        system.setDefuzzificationMethod(method);
+        return system;
+    }
+
+    private static boolean check(String name, FuzzyLogicSystem system, double[][] records) {
+        EvaluationContext context = new EvaluationContext();
+        return measure(name, i -> system.evaluate(context, records[i & (records.length - 1)]));
+    }
+
+    /**
+     * @return true if the calls allocated
+     */
+    private static boolean measure(String name, IntToDoubleFunction call) {
+        double sink = 0.0;
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            sink += call.applyAsDouble(i);
+        }
+        long thread = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            sink += call.applyAsDouble(i);
+        }
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - before;
+        System.out.printf("%-22s %8.3f bytes/call (checksum %.3f)%n", name, (double) allocated / MEASURED_CALLS,
+                sink);
+        return allocated > 0;
+    }
+}
@@ -0,0 +1,104 @@
+package fuzzy.benchmarks;
+
+import fuzzy.defuzzification.AdaptiveCentroidDefuzzification;
+import fuzzy.defuzzification.AggregatedSet;
+import fuzzy.defuzzification.CentroidDefuzzification;
+import fuzzy.defuzzification.DefuzzificationMethod;
+import fuzzy.defuzzification.ExactCentroidDefuzzification;
+import fuzzy.defuzzification.MamdaniAggregatedSet;
+import fuzzy.membership.GaussianMF;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.TriangularMF;
+import fuzzy.operators.MinImplication;
+
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compares sampled and adaptive centroid defuzzification against a reference
+ * on random aggregated sets: triangular output sets against the exact
+ * polygon centroid, Gaussian output sets against composite Simpson
+ * integration over a fine grid. Prints the largest absolute error and the
+ * mean number of membership evaluations per call.
+ *
+ * Usage: java -cp target/benchmarks.jar fuzzy.benchmarks.DefuzzificationAccuracy
+ */
+public class DefuzzificationAccuracy {
+    private static final int SETS = 5;
+    private static final int CASES = 2000;
+    private static final int REFERENCE_PANELS = 20_000;
+    private static final double[] TOLERANCES = { 1e-1, 1e-2, 1e-3, 1e-4 };
+
+    public static void main(String[] args) {
+        MembershipFunction[] triangles = new MembershipFunction[SETS];
+        MembershipFunction[] gaussians = new MembershipFunction[SETS];
+        for (int i = 0; i < SETS; i++) {
+            triangles[i] = new TriangularMF(i * 25.0 - 25.0, i * 25.0, i * 25.0 + 25.0);
+            gaussians[i] = new GaussianMF(i * 25.0, 10.0);
+        }
+        report("triangular", triangles, new ExactCentroidDefuzzification()::defuzzify);
+        report("gaussian", gaussians, DefuzzificationAccuracy::simpsonCentroid);
+    }
+
+    private static void report(String name, MembershipFunction[] outputSets,
+            ToDoubleFunction<AggregatedSet> reference) {
+        double[][] strengths = randomStrengths(new Random(42L));
+        double[] expected = new double[CASES];
+        for (int i = 0; i < CASES; i++) {
+            expected[i] = reference.applyAsDouble(aggregated(outputSets, strengths[i]));
+        }
+
+        System.out.println(name + " output sets:");
+        double error = maxError(new CentroidDefuzzification(), outputSets, strengths, expected);
+        System.out.printf("  %-22s max error %.3e, %7.1f evaluations%n", "sampled (1000)", error, 1001.0);
+        for (double tolerance : TOLERANCES) {
+            AdaptiveCentroidDefuzzification adaptive = new AdaptiveCentroidDefuzzification(tolerance);
+            error = maxError(adaptive, outputSets, strengths, expected);
+            System.out.printf("  %-22s max error %.3e, %7.1f evaluations%n", "adaptive (" + tolerance + ")",
+                    error, adaptive.getMeanEvaluationCount());
+        }
+    }
+
+    /**
+     * Fires one to three random output sets per case.
+     */
+    private static double[][] randomStrengths(Random random) {
+        double[][] strengths = new double[CASES][SETS];
+        for (double[] row : strengths) {
+            int fired = 1 + random.nextInt(3);
+            for (int k = 0; k < fired; k++) {
+                row[random.nextInt(SETS)] = random.nextDouble();
+            }
+        }
+        return strengths;
+    }
+
+    private static double maxError(DefuzzificationMethod method, MembershipFunction[] outputSets,
+            double[][] strengths, double[] expected) {
+        double error = 0.0;
+        for (int i = 0; i < CASES; i++) {
+            double actual = method.defuzzify(aggregated(outputSets, strengths[i]));
+            error = Math.max(error, Math.abs(actual - expected[i]));
+        }
+        return error;
+    }
+
+    private static double simpsonCentroid(AggregatedSet set) {
+        double minDomain = set.getMinDomain();
+        double h = (set.getMaxDomain() - minDomain) / (2 * REFERENCE_PANELS);
+        double area = 0.0;
+        double moment = 0.0;
+        for (int i = 0; i <= 2 * REFERENCE_PANELS; i++) {
+            double x = minDomain + i * h;
+            double weight = i == 0 || i == 2 * REFERENCE_PANELS ? 1.0 : i % 2 == 1 ? 4.0 : 2.0;
+            double mu = set.getMembership(x);
+            area += weight * mu;
+            moment += weight * x * mu;
+        }
+        return moment / area;
+    }
+
+    private static MamdaniAggregatedSet aggregated(MembershipFunction[] outputSets, double[] strengths) {
+        return new MamdaniAggregatedSet(outputSets, strengths, new MinImplication(), 0.0, 100.0);
+    }
+}
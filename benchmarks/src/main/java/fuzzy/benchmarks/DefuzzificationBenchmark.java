@@ -0,0 +1,39 @@
+package fuzzy.benchmarks;
+
+import fuzzy.defuzzification.CentroidDefuzzification;
+import fuzzy.defuzzification.DefuzzificationMethod;
+import fuzzy.defuzzification.MeanOfMaximumDefuzzification;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end Patient Triage evaluation for each sampling defuzzification
+ * method at several sample counts.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DefuzzificationBenchmark {
+    @Param({ "CENTROID", "MEAN_OF_MAXIMUM" })
+    public String method;
+
+    @Param({ "100", "1000", "10000" })
+    public int samples;
+
+    @Setup(Level.Trial)
+    public void setUp(TriageState triage) {
+        DefuzzificationMethod defuzzification = "CENTROID".equals(method)
+                ? new CentroidDefuzzification(samples)
+                : new MeanOfMaximumDefuzzification(samples);
+        triage.system.setDefuzzificationMethod(defuzzification);
+    }
+
+    @Benchmark
+    public double evaluate(TriageState triage) {
+        return triage.system.evaluate(triage.inputs[triage.next()]);
+    }
+}
@@ -0,0 +1,113 @@
+package fuzzy.benchmarks;
+
+import casestudy.PatientTriageSystem;
+import fuzzy.inference.MamdaniInference;
+import fuzzy.operators.AggregationOperator;
+import fuzzy.operators.MaxSNorm;
+import fuzzy.operators.MinImplication;
+import fuzzy.operators.MinTNorm;
+import fuzzy.rules.Rule;
+import fuzzy.system.CompiledSystem;
+import fuzzy.system.FuzzyLogicSystem;
+import fuzzy.system.GeneratedSystem;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks that evaluators generated by {@link CompiledSystem#generate()}
+ * compile and return exactly the outputs of the compiled plan and of
+ * {@link FuzzyLogicSystem#evaluate(Map)}, including for rule bases that start
+ * with, or consist only of, unconditional rules and for an aggregation
+ * operator other than maximum. Prints the number of mismatching records for
+ * each rule base and exits with status 1 if any of them differs.
+ *
+ * Usage: java -cp target/benchmarks.jar fuzzy.benchmarks.GeneratorCheck
+ */
+public class GeneratorCheck {
+    private static final int RECORDS = 4096;
+
+    public static void main(String[] args) {
+        double[][] patients = SyntheticSystemGenerator.randomRecords(3, RECORDS, 42L);
+        for (double[] patient : patients) {
+            patient[0] *= 10.0;
+            patient[1] = 35.0 + patient[1] * 7.0;
+            patient[2] = 60.0 + patient[2] * 140.0;
+        }
+        double[][] records = SyntheticSystemGenerator.randomRecords(8, RECORDS, 11L);
+
+        boolean failed = false;
+        failed |= check("triage", new PatientTriageSystem().getSystem(), patients);
+        FuzzyLogicSystem mean = new PatientTriageSystem().getSystem();
+        mean.setInferenceEngine(new MamdaniInference(new MinTNorm(), new MaxSNorm(), new MinImplication(),
+                new MeanAggregation()));
+        failed |= check("triage-mean-aggregation", mean, patients);
+        failed |= check("synthetic", SyntheticSystemGenerator.generate(8, 15, 2000, 7L), records);
+
+        FuzzyLogicSystem unconditionalFirst = SyntheticSystemGenerator.generate(8, 15, 0, 7L);
+        unconditionalFirst.getRuleBase().addRule(new Rule("y", "s0"));
+        for (Rule rule : SyntheticSystemGenerator.generate(8, 15, 2000, 7L).getRuleBase().getAllRules()) {
+            unconditionalFirst.getRuleBase().addRule(rule);
+        }
+        failed |= check("unconditional-first", unconditionalFirst, records);
+
+        FuzzyLogicSystem unconditionalOnly = SyntheticSystemGenerator.generate(8, 15, 0, 7L);
+        Rule weighted = new Rule("y", "s3");
+        weighted.setWeight(0.4);
+        unconditionalOnly.getRuleBase().addRule(new Rule("y", "s1"));
+        unconditionalOnly.getRuleBase().addRule(weighted);
+        failed |= check("unconditional-only", unconditionalOnly, records);
+
+        Map<String, Double> consequentValues = new HashMap<>();
+        for (int i = 0; i < SyntheticSystemGenerator.OUTPUT_SETS; i++) {
+            consequentValues.put("s" + i, i * 25.0);
+        }
+        unconditionalOnly.setupSugenoInference(consequentValues);
+        failed |= check("unconditional-only-sugeno", unconditionalOnly, records);
+
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return true if any output differs
+     */
+    private static boolean check(String name, FuzzyLogicSystem system, double[][] records) {
+        CompiledSystem plan = system.compile();
+        GeneratedSystem generated = plan.generate();
+        String[] inputNames = plan.getInputNames();
+        Map<String, Double> inputs = new HashMap<>();
+        int mismatches = 0;
+        for (double[] record : records) {
+            for (int i = 0; i < inputNames.length; i++) {
+                inputs.put(inputNames[i], record[i]);
+            }
+            double actual = generated.evaluate(record);
+            if (differs(plan.evaluate(record), actual) || differs(system.evaluate(inputs), actual)) {
+                mismatches++;
+            }
+        }
+        System.out.printf("%-26s %5d of %d records differ%n", name, mismatches, records.length);
+        return mismatches > 0;
+    }
+
+    private static boolean differs(double expected, double actual) {
+        return Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual);
+    }
+
+    /**
+     * Arithmetic mean of the fired strengths, which is not associative and so
+     * must be applied to all strengths of a set at once.
+     */
+    private static final class MeanAggregation implements AggregationOperator {
+        @Override
+        public double aggregate(double... values) {
+            double sum = 0.0;
+            for (double value : values) {
+                sum += value;
+            }
+            return values.length == 0 ? 0.0 : sum / values.length;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package fuzzy.benchmarks;
+
+import fuzzy.inference.MamdaniInference;
+import fuzzy.operators.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end Patient Triage evaluation for every combination of t-norm,
+ * s-norm and implication operator.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OperatorBenchmark {
+    @Param({ "MIN", "PRODUCT" })
+    public String tNorm;
+
+    @Param({ "MAX", "SUM" })
+    public String sNorm;
+
+    @Param({ "MIN", "PRODUCT" })
+    public String implication;
+
+    @Setup(Level.Trial)
+    public void setUp(TriageState triage) {
+        TNorm and = "MIN".equals(tNorm) ? new MinTNorm() : new ProductTNorm();
+        SNorm or = "MAX".equals(sNorm) ? new MaxSNorm() : new SumSNorm();
+        ImplicationOperator implicationOperator = "MIN".equals(implication)
+                ? new MinImplication()
+                : new ProductImplication();
+        triage.system.setInferenceEngine(new MamdaniInference(and, or, implicationOperator,
+                new MaxAggregation()));
+    }
+
+    @Benchmark
+    public double evaluate(TriageState triage) {
+        return triage.system.evaluate(triage.inputs[triage.next()]);
+    }
+}
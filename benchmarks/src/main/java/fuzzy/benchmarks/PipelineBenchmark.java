@@ -0,0 +1,139 @@
+package fuzzy.benchmarks;
+
+import fuzzy.defuzzification.BisectorDefuzzification;
+import fuzzy.defuzzification.CentroidDefuzzification;
+import fuzzy.defuzzification.DefuzzificationMethod;
+import fuzzy.defuzzification.MamdaniAggregatedSet;
+import fuzzy.defuzzification.MeanOfMaximumDefuzzification;
+import fuzzy.inference.InferenceEngine;
+import fuzzy.inference.MamdaniInference;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.rules.Rule;
+import fuzzy.system.CompiledSystem;
+import fuzzy.system.EvaluationContext;
+import fuzzy.system.FuzzyLogicSystem;
+import fuzzy.system.GeneratedSystem;
+import fuzzy.variables.FuzzySet;
+import fuzzy.variables.LinguisticVariable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each stage of the Patient Triage pipeline in isolation, and the whole
+ * pipeline end to end.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PipelineBenchmark {
+    private FuzzyLogicSystem system;
+    private InferenceEngine engine;
+    private DefuzzificationMethod method;
+    private List<Rule> rules;
+    private LinguisticVariable output;
+    private CompiledSystem plan;
+    private GeneratedSystem generated;
+    private final EvaluationContext context = new EvaluationContext();
+    private Map<String, Map<String, Double>>[] fuzzified;
+    private MamdaniAggregatedSet[] aggregated;
+    private final DefuzzificationMethod[] comparedMethods = { new CentroidDefuzzification(),
+            new MeanOfMaximumDefuzzification(), new BisectorDefuzzification() };
+    private final CompiledSystem[] comparedPlans = new CompiledSystem[comparedMethods.length];
+    private final double[] comparedOutputs = new double[comparedMethods.length];
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void setUp(TriageState triage) {
+        system = triage.system;
+        engine = system.getInferenceEngine();
+        method = system.getDefuzzificationMethod();
+        rules = system.getRuleBase().getEnabledRules();
+        output = system.getOutputVariable();
+        plan = system.compile();
+        generated = plan.generate();
+        for (int m = 0; m < comparedMethods.length; m++) {
+            system.setDefuzzificationMethod(comparedMethods[m]);
+            comparedPlans[m] = system.compile();
+        }
+        system.setDefuzzificationMethod(method);
+
+        List<FuzzySet> outputFuzzySets = new ArrayList<>(output.getAllFuzzySets());
+        MembershipFunction[] outputSets = new MembershipFunction[outputFuzzySets.size()];
+        for (int i = 0; i < outputSets.length; i++) {
+            outputSets[i] = outputFuzzySets.get(i).getMembershipFunction();
+        }
+
+        // Precompute stage inputs so each benchmark measures one stage only
+        fuzzified = new Map[triage.inputs.length];
+        aggregated = new MamdaniAggregatedSet[triage.inputs.length];
+        for (int i = 0; i < triage.inputs.length; i++) {
+            fuzzified[i] = system.fuzzify(triage.inputs[i]);
+            Map<String, Double> strengths = engine.infer(rules, fuzzified[i], output);
+            double[] setStrengths = new double[outputSets.length];
+            for (int s = 0; s < outputSets.length; s++) {
+                setStrengths[s] = strengths.getOrDefault(outputFuzzySets.get(s).getName(), 0.0);
+            }
+            aggregated[i] = new MamdaniAggregatedSet(outputSets, setStrengths,
+                    ((MamdaniInference) engine).getImplicationOperator(),
+                    output.getMinDomain(), output.getMaxDomain());
+        }
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Double>> fuzzify(TriageState triage) {
+        return system.fuzzify(triage.inputs[triage.next()]);
+    }
+
+    @Benchmark
+    public Map<String, Double> infer(TriageState triage) {
+        return engine.infer(rules, fuzzified[triage.next()], output);
+    }
+
+    @Benchmark
+    public double defuzzify(TriageState triage) {
+        return method.defuzzify(aggregated[triage.next()]);
+    }
+
+    @Benchmark
+    public double evaluate(TriageState triage) {
+        return system.evaluate(triage.inputs[triage.next()]);
+    }
+
+    @Benchmark
+    public double evaluateCompiled(TriageState triage) {
+        return plan.evaluate(triage.patients[triage.next()]);
+    }
+
+    @Benchmark
+    public double evaluateWithContext(TriageState triage) {
+        return system.evaluate(context, triage.patients[triage.next()]);
+    }
+
+    @Benchmark
+    public double evaluateGenerated(TriageState triage) {
+        return generated.evaluate(triage.patients[triage.next()]);
+    }
+
+    @Benchmark
+    public double compareMethodsSeparately(TriageState triage) {
+        double[] patient = triage.patients[triage.next()];
+        double sum = 0.0;
+        for (CompiledSystem comparedPlan : comparedPlans) {
+            sum += comparedPlan.evaluate(patient);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] compareMethodsShared(TriageState triage) {
+        plan.evaluateAll(triage.patients[triage.next()], comparedMethods, comparedOutputs);
+        return comparedOutputs;
+    }
+}
@@ -0,0 +1,67 @@
+package fuzzy.benchmarks;
+
+import fuzzy.system.CompiledSystem;
+import fuzzy.system.FuzzyLogicSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluation latency of synthetic systems as the number of variables, sets
+ * per variable and rules grows. JMH runs the full cross product of the
+ * parameters; use -p to sweep one dimension, for example
+ * {@code -p variables=4 -p setsPerVariable=7}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScalabilityBenchmark {
+    private static final int RECORDS = 1024;
+
+    @Param({ "2", "4", "8", "16" })
+    public int variables;
+
+    @Param({ "3", "7", "15", "31" })
+    public int setsPerVariable;
+
+    @Param({ "100", "1000", "10000", "100000" })
+    public int rules;
+
+    private FuzzyLogicSystem system;
+    private CompiledSystem plan;
+    private double[][] records;
+    private Map<String, Double>[] inputs;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void setUp() {
+        system = SyntheticSystemGenerator.generate(variables, setsPerVariable, rules, 7L);
+        plan = system.compile();
+        records = SyntheticSystemGenerator.randomRecords(variables, RECORDS, 11L);
+        inputs = new Map[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            inputs[i] = SyntheticSystemGenerator.toInputs(records[i]);
+        }
+    }
+
+    private int next() {
+        int index = next;
+        next = (index + 1) & (RECORDS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double evaluate() {
+        return system.evaluate(inputs[next()]);
+    }
+
+    @Benchmark
+    public double evaluateCompiled() {
+        return plan.evaluate(records[next()]);
+    }
+}
@@ -0,0 +1,120 @@
+package fuzzy.benchmarks;
+
+import fuzzy.system.CompiledSystem;
+import fuzzy.system.FuzzyLogicSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sweeps one size dimension at a time and prints latency and retained heap as
+ * CSV, ready to chart. Each sweep starts from a base of 4 variables, 7 sets
+ * per variable and 1000 rules.
+ *
+ * Usage: java -cp target/benchmarks.jar fuzzy.benchmarks.ScalabilityReport [records]
+ */
+public class ScalabilityReport {
+    private static final int BASE_VARIABLES = 4;
+    private static final int BASE_SETS = 7;
+    private static final int BASE_RULES = 1000;
+
+    public static void main(String[] args) {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        List<int[]> sizes = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        for (int variables : new int[] { 1, 2, 4, 8, 16, 32 }) {
+            labels.add("variables," + variables);
+            sizes.add(new int[] { variables, BASE_SETS, BASE_RULES });
+        }
+        for (int sets : new int[] { 3, 7, 15, 31, 63 }) {
+            labels.add("sets," + sets);
+            sizes.add(new int[] { BASE_VARIABLES, sets, BASE_RULES });
+        }
+        for (int rules : new int[] { 10, 100, 1000, 10000, 100000 }) {
+            labels.add("rules," + rules);
+            sizes.add(new int[] { BASE_VARIABLES, BASE_SETS, rules });
+        }
+
+        // Footprints first: evaluation leaves per-thread scratch buffers behind,
+        // which would otherwise be freed in the middle of a later measurement
+        long[][] footprints = new long[sizes.size()][];
+        for (int i = 0; i < sizes.size(); i++) {
+            footprints[i] = footprint(sizes.get(i));
+        }
+
+        System.out.println("dimension,value,variables,sets,rules,"
+                + "evaluate_us,compiled_us,system_kb,plan_kb");
+        for (int i = 0; i < sizes.size(); i++) {
+            int[] size = sizes.get(i);
+            double[] latencies = latency(size, records);
+            System.out.printf("%s,%d,%d,%d,%.2f,%.2f,%d,%d%n", labels.get(i), size[0], size[1], size[2],
+                    latencies[0], latencies[1], footprints[i][0] / 1024, footprints[i][1] / 1024);
+        }
+    }
+
+    /**
+     * @return retained bytes of the system and of its compiled plan
+     */
+    private static long[] footprint(int[] size) {
+        long before = usedHeap();
+        FuzzyLogicSystem system = SyntheticSystemGenerator.generate(size[0], size[1], size[2], 7L);
+        long afterSystem = usedHeap();
+        CompiledSystem plan = system.compile();
+        long afterPlan = usedHeap();
+        if (plan.getRuleCount() != size[2]) {
+            throw new IllegalStateException("Generated " + plan.getRuleCount() + " rules");
+        }
+        return new long[] { afterSystem - before, afterPlan - afterSystem };
+    }
+
+    /**
+     * @return microseconds per record for map-based and compiled evaluation
+     */
+    private static double[] latency(int[] size, int records) {
+        FuzzyLogicSystem system = SyntheticSystemGenerator.generate(size[0], size[1], size[2], 7L);
+        CompiledSystem plan = system.compile();
+        double[][] rows = SyntheticSystemGenerator.randomRecords(size[0], records, 11L);
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Map<String, Double>[] inputs = new Map[records];
+        for (int i = 0; i < records; i++) {
+            inputs[i] = SyntheticSystemGenerator.toInputs(rows[i]);
+        }
+
+        // Warm up both paths, then keep the best of three timed passes
+        double sink = 0.0;
+        long bestMap = Long.MAX_VALUE;
+        long bestPlan = Long.MAX_VALUE;
+        for (int pass = 0; pass < 4; pass++) {
+            long start = System.nanoTime();
+            for (Map<String, Double> input : inputs) {
+                sink += system.evaluate(input);
+            }
+            long mapTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (double[] row : rows) {
+                sink += plan.evaluate(row);
+            }
+            long planTime = System.nanoTime() - start;
+
+            if (pass > 0) {
+                bestMap = Math.min(bestMap, mapTime);
+                bestPlan = Math.min(bestPlan, planTime);
+            }
+        }
+        if (Double.isNaN(sink)) {
+            throw new IllegalStateException("Evaluation produced NaN");
+        }
+        return new double[] { bestMap / 1e3 / records, bestPlan / 1e3 / records };
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,117 @@
+package fuzzy.benchmarks;
+
+import fuzzy.membership.TrapezoidalMF;
+import fuzzy.membership.TriangularMF;
+import fuzzy.rules.Rule;
+import fuzzy.system.FuzzyLogicSystem;
+import fuzzy.variables.FuzzySet;
+import fuzzy.variables.LinguisticVariable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds random Mamdani systems of a given size for scalability testing.
+ *
+ * Every input variable "x0", "x1", ... spans [0, 1] and is split into evenly
+ * spaced, overlapping triangular sets "s0", "s1", ... with shoulders at both
+ * ends, so at most two sets are active for any input. The output variable
+ * "y" has five sets over [0, 100]. Each rule ANDs up to three distinct input
+ * variables. The same arguments always produce the same system.
+ */
+public final class SyntheticSystemGenerator {
+    public static final int OUTPUT_SETS = 5;
+    public static final int MAX_TERMS_PER_RULE = 3;
+
+    private SyntheticSystemGenerator() {
+    }
+
+    /**
+     * @param variables       number of input variables
+     * @param setsPerVariable fuzzy sets per input variable (at least 2)
+     * @param rules           number of rules
+     * @param seed            random seed for rule antecedents and consequents
+     */
+    public static FuzzyLogicSystem generate(int variables, int setsPerVariable, int rules, long seed) {
+        if (variables < 1 || setsPerVariable < 2 || rules < 0) {
+            throw new IllegalArgumentException("Need at least one variable, two sets per variable "
+                    + "and a non-negative rule count");
+        }
+
+        FuzzyLogicSystem system = new FuzzyLogicSystem(partition("y", OUTPUT_SETS, 0.0, 100.0));
+        for (int v = 0; v < variables; v++) {
+            system.addInputVariable(partition("x" + v, setsPerVariable, 0.0, 1.0));
+        }
+
+        Random random = new Random(seed);
+        int terms = Math.min(MAX_TERMS_PER_RULE, variables);
+        int[] chosen = new int[terms];
+        for (int r = 0; r < rules; r++) {
+            Rule rule = new Rule("y", "s" + random.nextInt(OUTPUT_SETS));
+            for (int t = 0; t < terms; t++) {
+                chosen[t] = distinctVariable(random, variables, chosen, t);
+                rule.addAntecedentCondition("x" + chosen[t], "s" + random.nextInt(setsPerVariable), true);
+            }
+            system.getRuleBase().addRule(rule);
+        }
+        return system;
+    }
+
+    private static int distinctVariable(Random random, int variables, int[] chosen, int count) {
+        while (true) {
+            int candidate = random.nextInt(variables);
+            boolean used = false;
+            for (int i = 0; i < count; i++) {
+                used |= chosen[i] == candidate;
+            }
+            if (!used) {
+                return candidate;
+            }
+        }
+    }
+
+    private static LinguisticVariable partition(String name, int sets, double min, double max) {
+        LinguisticVariable variable = new LinguisticVariable(name, min, max);
+        double step = (max - min) / (sets - 1);
+        for (int i = 0; i < sets; i++) {
+            double peak = min + i * step;
+            if (i == 0) {
+                variable.addFuzzySet(new FuzzySet("s" + i,
+                        new TrapezoidalMF(min - step, min - step / 2, peak, peak + step)));
+            } else if (i == sets - 1) {
+                variable.addFuzzySet(new FuzzySet("s" + i,
+                        new TrapezoidalMF(peak - step, peak, max + step / 2, max + step)));
+            } else {
+                variable.addFuzzySet(new FuzzySet("s" + i, new TriangularMF(peak - step, peak, peak + step)));
+            }
+        }
+        return variable;
+    }
+
+    /**
+     * Generates uniformly random records, one row per record in variable order.
+     */
+    public static double[][] randomRecords(int variables, int records, long seed) {
+        Random random = new Random(seed);
+        double[][] rows = new double[records][variables];
+        for (int i = 0; i < records; i++) {
+            for (int v = 0; v < variables; v++) {
+                rows[i][v] = random.nextDouble();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Converts a record to the map form taken by
+     * {@link FuzzyLogicSystem#evaluate(Map)}.
+     */
+    public static Map<String, Double> toInputs(double[] record) {
+        Map<String, Double> inputs = new HashMap<>();
+        for (int v = 0; v < record.length; v++) {
+            inputs.put("x" + v, record[v]);
+        }
+        return inputs;
+    }
+}
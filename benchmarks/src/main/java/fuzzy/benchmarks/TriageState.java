@@ -0,0 +1,56 @@
+package fuzzy.benchmarks;
+
+import casestudy.PatientTriageSystem;
+import fuzzy.system.FuzzyLogicSystem;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Patient Triage System with a fixed set of random patients. Benchmarks cycle
+ * through the patients so branch predictors cannot learn a single input.
+ */
+@State(Scope.Thread)
+public class TriageState {
+    private static final int PATIENTS = 1024;
+
+    public FuzzyLogicSystem system;
+    public double[][] patients;
+    public Map<String, Double>[] inputs;
+    private int next;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void setUp() {
+        system = new PatientTriageSystem().getSystem();
+        Random random = new Random(42L);
+        patients = new double[PATIENTS][];
+        inputs = new Map[PATIENTS];
+        for (int i = 0; i < PATIENTS; i++) {
+            double pain = random.nextDouble() * 10.0;
+            double temperature = 35.0 + random.nextDouble() * 7.0;
+            double bloodPressure = 60.0 + random.nextDouble() * 140.0;
+            patients[i] = new double[] { pain, temperature, bloodPressure };
+
+            Map<String, Double> crispInputs = new HashMap<>();
+            crispInputs.put("PainLevel", pain);
+            crispInputs.put("Temperature", temperature);
+            crispInputs.put("BloodPressure", bloodPressure);
+            inputs[i] = crispInputs;
+        }
+    }
+
+    /**
+     * Gets the index of the next patient.
+     */
+    public int next() {
+        int index = next;
+        next = (index + 1) & (PATIENTS - 1);
+        return index;
+    }
+}
@@ -0,0 +1,83 @@
+package fuzzy.benchmarks;
+
+import fuzzy.membership.ArrayKernels;
+import fuzzy.membership.GaussianMF;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.ScalarKernels;
+import fuzzy.membership.TrapezoidalMF;
+import fuzzy.membership.TriangularMF;
+import fuzzy.vector.VectorKernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar versus Vector API kernels: membership evaluation over an input
+ * column (batch fuzzification), output-domain sampling and centroid sums.
+ *
+ * Built only with the {@code vector} profile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class KernelBenchmark {
+    @Param({ "SCALAR", "VECTOR" })
+    public String kernel;
+
+    @Param({ "TRIANGULAR", "TRAPEZOIDAL", "GAUSSIAN" })
+    public String function;
+
+    @Param({ "1001" })
+    public int size;
+
+    private ArrayKernels kernels;
+    private MembershipFunction membershipFunction;
+    private double[] xs;
+    private double[] memberships;
+    private double[] sums;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernels = "VECTOR".equals(kernel) ? new VectorKernels() : new ScalarKernels();
+        switch (function) {
+            case "TRIANGULAR":
+                membershipFunction = new TriangularMF(20, 50, 80);
+                break;
+            case "TRAPEZOIDAL":
+                membershipFunction = new TrapezoidalMF(10, 30, 60, 90);
+                break;
+            default:
+                membershipFunction = new GaussianMF(50, 15);
+        }
+        Random random = new Random(42);
+        xs = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = random.nextDouble() * 100;
+        }
+        memberships = new double[size];
+        sums = new double[2];
+        kernels.sample(membershipFunction, 0, 100.0 / (size - 1), size, memberships);
+    }
+
+    @Benchmark
+    public double[] calculate() {
+        kernels.calculate(membershipFunction, xs, 0, size, memberships, 0);
+        return memberships;
+    }
+
+    @Benchmark
+    public double[] sample() {
+        kernels.sample(membershipFunction, 0, 100.0 / (size - 1), size, memberships);
+        return memberships;
+    }
+
+    @Benchmark
+    public double[] centroidSums() {
+        kernels.centroidSums(memberships, size, 0, 100.0 / (size - 1), sums);
+        return sums;
+    }
+}
@@ -0,0 +1,37 @@
+package fuzzy.benchmarks;
+
+import fuzzy.defuzzification.CentroidDefuzzification;
+import fuzzy.membership.ArrayKernels;
+import fuzzy.membership.ScalarKernels;
+import fuzzy.vector.VectorKernels;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end Patient Triage evaluation with centroid sums computed by the
+ * scalar or the Vector API kernels.
+ *
+ * Built only with the {@code vector} profile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class KernelPipelineBenchmark {
+    @Param({ "SCALAR", "VECTOR" })
+    public String kernel;
+
+    @Setup(Level.Trial)
+    public void setUp(TriageState triage) {
+        ArrayKernels kernels = "VECTOR".equals(kernel) ? new VectorKernels() : new ScalarKernels();
+        triage.system.setDefuzzificationMethod(new CentroidDefuzzification(1000, kernels));
+    }
+
+    @Benchmark
+    public double evaluate(TriageState triage) {
+        return triage.system.evaluate(triage.inputs[triage.next()]);
+    }
+}
@@ -0,0 +1,67 @@
+package casestudy;
+
+import fuzzy.system.CompiledSystem;
+import fuzzy.system.ParallelBatchEvaluator;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how batch scoring of the Patient Triage System scales from one
+ * thread up to the number of available processors.
+ * 
+ * Usage: java -cp target/classes casestudy.ParallelScalingBenchmark [records] [runs]
+ */
+public class ParallelScalingBenchmark {
+
+    public static void main(String[] args) {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+
+        CompiledSystem plan = new PatientTriageSystem().getSystem().compile();
+        double[][] columns = randomPatients(records, 42L);
+        double[] out = new double[records];
+
+        System.out.println("=== Parallel Batch Scoring: Patient Triage System ===\n");
+        System.out.printf("Records: %d, runs per thread count: %d, processors: %d\n\n",
+                records, runs, maxThreads);
+        System.out.println("Threads | Best time (ms) | Records/s   | Speedup");
+
+        double baseline = 0.0;
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ParallelBatchEvaluator evaluator = new ParallelBatchEvaluator(plan, pool);
+                evaluator.evaluateBatch(columns, out); // warm-up
+
+                long best = Long.MAX_VALUE;
+                for (int run = 0; run < runs; run++) {
+                    long start = System.nanoTime();
+                    evaluator.evaluateBatch(columns, out);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+
+                double seconds = best / 1e9;
+                if (threads == 1) {
+                    baseline = seconds;
+                }
+                System.out.printf("%7d | %14.1f | %11.0f | %6.2fx\n",
+                        threads, best / 1e6, records / seconds, baseline / seconds);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static double[][] randomPatients(int records, long seed) {
+        Random random = new Random(seed);
+        double[][] columns = new double[3][records];
+        for (int i = 0; i < records; i++) {
+            columns[0][i] = random.nextDouble() * 10;
+            columns[1][i] = 35 + random.nextDouble() * 7;
+            columns[2][i] = 60 + random.nextDouble() * 140;
+        }
+        return columns;
+    }
+}
@@ -70,6 +70,23 @@ public class PatientTriageDemo {
         System.out.printf("Final Urgency Score: %.2f\n", urgency2);
         System.out.println("Category: " + triageSystem.getUrgencyCategory(urgency2));
 
+        System.out.println("\n=== Comparing Defuzzification Methods ===\n");
+        DefuzzificationMethod[] methods = {
+                new CentroidDefuzzification(),
+                new MeanOfMaximumDefuzzification(),
+                new BisectorDefuzzification(),
+                new WeightedAverageOfCentersDefuzzification(),
+                new HeightDefuzzification()
+        };
+        String[] methodNames = { "Centroid", "Mean of Maximum", "Bisector", "Weighted Average of Centers",
+                "Height" };
+        // One pass through the pipeline; every method reads the same sampled output curve
+        double[] scores = system.evaluateAll(inputs, methods);
+        for (int i = 0; i < methods.length; i++) {
+            System.out.printf("%-28s %6.2f (%s)\n", methodNames[i] + ":", scores[i],
+                    triageSystem.getUrgencyCategory(scores[i]));
+        }
+
         System.out.println("\n=== Rule Base Information ===\n");
         System.out.println("Total Rules: " + system.getRuleBase().size());
         System.out.println("Enabled Rules: " + system.getRuleBase().getEnabledRules().size());
@@ -0,0 +1,37 @@
+package casestudy;
+
+import fuzzy.io.CsvScorer;
+import fuzzy.system.CompiledSystem;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Scores a CSV file of patients with the Patient Triage System.
+ * The input needs PainLevel, Temperature and BloodPressure columns; every
+ * input line is copied to the output with an UrgencyScore column appended.
+ * 
+ * Usage: java -cp target/classes casestudy.TriageCsvScorer input.csv output.csv [batchSize]
+ */
+public class TriageCsvScorer {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TriageCsvScorer <input.csv> <output.csv> [batchSize]");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+
+        CompiledSystem plan = new PatientTriageSystem().getSystem().compile();
+        CsvScorer scorer = new CsvScorer(plan, "UrgencyScore", batchSize);
+
+        long start = System.nanoTime();
+        long records = scorer.score(input, output);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Scored %d records in %.2f s (%.0f records/s)\n",
+                records, seconds, records / Math.max(seconds, 1e-9));
+    }
+}
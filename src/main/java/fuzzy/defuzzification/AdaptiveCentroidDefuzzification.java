@@ -0,0 +1,277 @@
+package fuzzy.defuzzification;
+
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.PiecewiseLinearMF;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Centroid defuzzification by adaptive Simpson integration with a target
+ * absolute error on the crisp output.
+ *
+ * The output domain is first cut into a few even panels and, for a
+ * {@link MamdaniAggregatedSet}, at the breakpoints (or domain bounds) of every
+ * fired output set, so each panel starts out smooth apart from clipping kinks.
+ * Each panel is then halved only while the two Simpson estimates of the area
+ * and first moment disagree, which concentrates evaluations around kinks and
+ * leaves zero or flat regions with a handful of points.
+ *
+ * The error estimate is heuristic: a feature narrower than a panel and lying
+ * between its sample points can be missed. When no evaluated point has a
+ * positive membership the domain midpoint is returned, as with
+ * {@link CentroidDefuzzification}.
+ */
+public class AdaptiveCentroidDefuzzification implements DefuzzificationMethod {
+    private static final int DEFAULT_PANELS = 8;
+    private static final int DEFAULT_MAX_DEPTH = 20;
+
+    private final double tolerance;
+    private final int panels;
+    private final int maxDepth;
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+
+    /**
+     * @param tolerance target absolute error of the crisp output, in output
+     *                  domain units
+     */
+    public AdaptiveCentroidDefuzzification(double tolerance) {
+        this(tolerance, DEFAULT_PANELS, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param tolerance target absolute error of the crisp output
+     * @param panels    number of even panels the domain is cut into before
+     *                  refinement
+     * @param maxDepth  maximum number of times a panel is halved
+     */
+    public AdaptiveCentroidDefuzzification(double tolerance, int panels, int maxDepth) {
+        if (!(tolerance > 0) || Double.isInfinite(tolerance)) {
+            throw new IllegalArgumentException("Tolerance must be positive and finite");
+        }
+        if (panels <= 0) {
+            throw new IllegalArgumentException("Number of panels must be positive");
+        }
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Maximum depth cannot be negative");
+        }
+        this.tolerance = tolerance;
+        this.panels = panels;
+        this.maxDepth = maxDepth;
+    }
+
+    @Override
+    public double defuzzify(Function<Double, Double> aggregatedMF,
+            double minDomain, double maxDomain) {
+        return defuzzify(AggregatedSet.of(aggregatedMF::apply, minDomain, maxDomain));
+    }
+
+    @Override
+    public double defuzzify(AggregatedSet aggregatedSet) {
+        Workspace work = workspaces.get();
+        double minDomain = aggregatedSet.getMinDomain();
+        double maxDomain = aggregatedSet.getMaxDomain();
+        double centre = (minDomain + maxDomain) / 2.0;
+        work.set = aggregatedSet;
+        work.centre = centre;
+        work.halfWidth = (maxDomain - minDomain) / 2.0;
+        work.evaluations = 0;
+        work.area = 0.0;
+        work.moment = 0.0;
+
+        int knotCount = collectKnots(aggregatedSet, work);
+        double[] knots = work.knots;
+
+        // Simpson estimates of every initial panel, kept to seed the refinement
+        double[] values = work.values(2 * knotCount - 1);
+        for (int k = 0; k < knotCount; k++) {
+            values[2 * k] = work.membership(knots[k]);
+            if (k + 1 < knotCount) {
+                values[2 * k + 1] = work.membership((knots[k] + knots[k + 1]) / 2.0);
+            }
+        }
+        double areaEstimate = 0.0;
+        for (int k = 0; k + 1 < knotCount; k++) {
+            areaEstimate += (knots[k + 1] - knots[k]) / 6.0
+                    * (values[2 * k] + 4.0 * values[2 * k + 1] + values[2 * k + 2]);
+        }
+
+        if (areaEstimate > 0) {
+            // centroid error is about (moment error + halfWidth * area error) / area
+            double budget = tolerance * areaEstimate / 2.0;
+            double width = maxDomain - minDomain;
+            for (int k = 0; k + 1 < knotCount; k++) {
+                double a = knots[k];
+                double b = knots[k + 1];
+                work.refine(a, b, values[2 * k], values[2 * k + 1], values[2 * k + 2],
+                        budget * (b - a) / width, maxDepth);
+            }
+        }
+
+        calls.increment();
+        evaluations.add(work.evaluations);
+        work.set = null;
+        if (!(work.area > 0)) {
+            return centre;
+        }
+        return centre + work.moment / work.area;
+    }
+
+    /**
+     * Writes the sorted, distinct panel bounds into the workspace.
+     *
+     * @return number of bounds
+     */
+    private int collectKnots(AggregatedSet aggregatedSet, Workspace work) {
+        double minDomain = aggregatedSet.getMinDomain();
+        double maxDomain = aggregatedSet.getMaxDomain();
+        int capacity = panels + 1;
+        AggregatedSet source = aggregatedSet instanceof AggregatedCurve
+                ? ((AggregatedCurve) aggregatedSet).getSource() : aggregatedSet;
+        MamdaniAggregatedSet mamdani = source instanceof MamdaniAggregatedSet ? (MamdaniAggregatedSet) source : null;
+        if (mamdani != null) {
+            for (int i = 0; i < mamdani.getSetCount(); i++) {
+                if (mamdani.getStrength(i) > 0) {
+                    capacity += work.breakpointsOf(mamdani, i).length;
+                }
+            }
+        }
+        double[] knots = work.knots(capacity);
+
+        int count = 0;
+        for (int p = 0; p <= panels; p++) {
+            knots[count++] = p == panels ? maxDomain : minDomain + p * ((maxDomain - minDomain) / panels);
+        }
+        if (mamdani != null) {
+            for (int i = 0; i < mamdani.getSetCount(); i++) {
+                if (mamdani.getStrength(i) > 0) {
+                    for (double x : work.breakpointsOf(mamdani, i)) {
+                        if (x > minDomain && x < maxDomain) {
+                            knots[count++] = x;
+                        }
+                    }
+                }
+            }
+        }
+        Arrays.sort(knots, 0, count);
+        int distinct = 0;
+        for (int k = 0; k < count; k++) {
+            if (distinct == 0 || knots[k] != knots[distinct - 1]) {
+                knots[distinct++] = knots[k];
+            }
+        }
+        return distinct;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Gets the number of membership evaluations of the last call to
+     * {@link #defuzzify(AggregatedSet)} on the calling thread.
+     */
+    public int getLastEvaluationCount() {
+        return workspaces.get().evaluations;
+    }
+
+    /**
+     * Gets the mean number of membership evaluations per call over all
+     * threads, or 0 before the first call.
+     */
+    public double getMeanEvaluationCount() {
+        long count = calls.sum();
+        return count == 0 ? 0.0 : (double) evaluations.sum() / count;
+    }
+
+    /**
+     * Per-thread state of one integration plus buffers and cached breakpoints
+     * reused between calls.
+     */
+    private static final class Workspace {
+        AggregatedSet set;
+        double centre;
+        double halfWidth;
+        int evaluations;
+        double area;
+        double moment; // first moment about the centre
+
+        private double[] knots = new double[0];
+        private double[] values = new double[0];
+        private MembershipFunction[] cachedFunctions = new MembershipFunction[0];
+        private double[][] cachedBreakpoints = new double[0][];
+
+        double membership(double x) {
+            evaluations++;
+            return set.getMembership(x);
+        }
+
+        /**
+         * Integrates one panel given the memberships at its bounds and
+         * midpoint, halving it until the estimated error is within eps.
+         */
+        void refine(double a, double b, double fa, double fm, double fb, double eps, int depth) {
+            double m = (a + b) / 2.0;
+            double left = (a + m) / 2.0;
+            double right = (m + b) / 2.0;
+            double fl = membership(left);
+            double fr = membership(right);
+
+            double h = b - a;
+            double whole = h / 6.0 * (fa + 4.0 * fm + fb);
+            double wholeMoment = h / 6.0 * (moment(a, fa) + 4.0 * moment(m, fm) + moment(b, fb));
+            double halves = h / 12.0 * (fa + 4.0 * fl + 2.0 * fm + 4.0 * fr + fb);
+            double halvesMoment = h / 12.0 * (moment(a, fa) + 4.0 * moment(left, fl) + 2.0 * moment(m, fm)
+                    + 4.0 * moment(right, fr) + moment(b, fb));
+
+            double areaError = halves - whole;
+            double momentError = halvesMoment - wholeMoment;
+            if (depth == 0 || Math.abs(momentError) + halfWidth * Math.abs(areaError) <= 15.0 * eps) {
+                area += halves + areaError / 15.0;
+                moment += halvesMoment + momentError / 15.0;
+                return;
+            }
+            refine(a, m, fa, fl, fm, eps / 2.0, depth - 1);
+            refine(m, b, fm, fr, fb, eps / 2.0, depth - 1);
+        }
+
+        private double moment(double x, double membership) {
+            return (x - centre) * membership;
+        }
+
+        double[] knots(int capacity) {
+            if (knots.length < capacity) {
+                knots = new double[capacity];
+            }
+            return knots;
+        }
+
+        double[] values(int capacity) {
+            if (values.length < capacity) {
+                values = new double[capacity];
+            }
+            return values;
+        }
+
+        /**
+         * Gets the breakpoints of a piecewise linear output set, or the domain
+         * bounds of any other set, remembering them per membership function.
+         */
+        double[] breakpointsOf(MamdaniAggregatedSet set, int index) {
+            if (cachedFunctions.length < set.getSetCount()) {
+                cachedFunctions = Arrays.copyOf(cachedFunctions, set.getSetCount());
+                cachedBreakpoints = Arrays.copyOf(cachedBreakpoints, set.getSetCount());
+            }
+            MembershipFunction mf = set.getMembershipFunction(index);
+            if (cachedFunctions[index] != mf) {
+                cachedBreakpoints[index] = mf instanceof PiecewiseLinearMF
+                        ? ((PiecewiseLinearMF) mf).getBreakpoints() : mf.getDomain();
+                cachedFunctions[index] = mf;
+            }
+            return cachedBreakpoints[index];
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package fuzzy.defuzzification;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated set materialised once on an even grid so that several
+ * defuzzification methods can be applied without re-evaluating it.
+ *
+ * The curve stores the membership at every sample point together with the
+ * sums used by {@link CentroidDefuzzification} and
+ * {@link MeanOfMaximumDefuzzification} and prefix sums of the area under the
+ * linearly interpolated samples. Those two methods, at the curve's sample
+ * count, answer in constant time with results identical to sampling the
+ * source set; {@link BisectorDefuzzification} answers by binary search.
+ * Other methods, and other sample counts, read the stored samples or fall
+ * through to the source set.
+ *
+ * The curve reflects the source at the time of {@link #sample}; sample again
+ * after the source changes (for example when a {@link MamdaniAggregatedSet}'s
+ * strengths are refilled). A curve can be resampled any number of times; its
+ * buffers only grow. An instance is meant for one thread at a time.
+ */
+public final class AggregatedCurve implements AggregatedSet {
+    public static final int DEFAULT_SAMPLES = 1000;
+
+    private AggregatedSet source;
+    private int samples;
+    private double minDomain;
+    private double maxDomain;
+    private double[] memberships = new double[0];
+    private double[] cumulativeArea = new double[0]; // trapezoid area from minDomain to each sample
+
+    // Sums accumulated exactly as the sampling defuzzifiers do
+    private double momentSum;
+    private double membershipSum;
+    private double maximum;
+    private double maximumSum;
+    private int maximumCount;
+
+    public AggregatedCurve() {
+    }
+
+    public AggregatedCurve(AggregatedSet source, int samples) {
+        sample(source, samples);
+    }
+
+    /**
+     * Replaces this curve with samples of an aggregated set.
+     *
+     * @param samples number of intervals of the grid
+     */
+    public void sample(AggregatedSet source, int samples) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("Number of samples must be positive");
+        }
+        if (memberships.length < samples + 1) {
+            memberships = Arrays.copyOf(memberships, samples + 1);
+            cumulativeArea = Arrays.copyOf(cumulativeArea, samples + 1);
+        }
+        this.source = source;
+        this.samples = samples;
+        this.minDomain = source.getMinDomain();
+        this.maxDomain = source.getMaxDomain();
+
+        double step = (maxDomain - minDomain) / samples;
+        momentSum = 0.0;
+        membershipSum = 0.0;
+        maximum = 0.0;
+        maximumSum = 0.0;
+        maximumCount = 0;
+        double area = 0.0;
+        for (int i = 0; i <= samples; i++) {
+            double x = minDomain + i * step;
+            double mu = source.getSampledMembership(i, samples);
+            memberships[i] = mu;
+            momentSum += x * mu;
+            membershipSum += mu;
+            if (mu > maximum) {
+                maximum = mu;
+                maximumSum = x;
+                maximumCount = 1;
+            } else if (mu == maximum && maximum > 0) {
+                maximumSum += x;
+                maximumCount++;
+            }
+            if (i > 0) {
+                area += step * (memberships[i - 1] + mu) / 2.0;
+            }
+            cumulativeArea[i] = area;
+        }
+    }
+
+    /**
+     * Gets the membership from the source set.
+     */
+    @Override
+    public double getMembership(double x) {
+        return source.getMembership(x);
+    }
+
+    @Override
+    public double getSampledMembership(int index, int samples) {
+        if (samples == this.samples) {
+            return memberships[index];
+        }
+        return source.getSampledMembership(index, samples);
+    }
+
+    @Override
+    public double getMinDomain() {
+        return minDomain;
+    }
+
+    @Override
+    public double getMaxDomain() {
+        return maxDomain;
+    }
+
+    public AggregatedSet getSource() {
+        return source;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Gets the largest sampled membership.
+     */
+    public double getHeight() {
+        return maximum;
+    }
+
+    /**
+     * Gets the area under the linearly interpolated samples.
+     */
+    public double getArea() {
+        return cumulativeArea[samples];
+    }
+
+    /**
+     * Gets the point that splits the area under the linearly interpolated
+     * samples in half, or the domain midpoint if the area is zero.
+     */
+    public double getBisector() {
+        double area = cumulativeArea[samples];
+        if (!(area > 0)) {
+            return (minDomain + maxDomain) / 2.0;
+        }
+        double half = area / 2.0;
+        int low = 0;
+        int high = samples;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeArea[middle] < half) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+
+        // Solve step * (y0 t + (y1 - y0) t^2 / 2) = remaining for t in [0, 1]
+        double step = (maxDomain - minDomain) / samples;
+        double remaining = (half - cumulativeArea[low]) / step;
+        double y0 = memberships[low];
+        double y1 = memberships[high];
+        double root = Math.sqrt(Math.max(0.0, y0 * y0 + 2.0 * (y1 - y0) * remaining));
+        double t = 2.0 * remaining / (y0 + root);
+        return minDomain + (low + Math.min(1.0, Math.max(0.0, t))) * step;
+    }
+
+    double getMomentSum() {
+        return momentSum;
+    }
+
+    double getMembershipSum() {
+        return membershipSum;
+    }
+
+    double getMaximumSum() {
+        return maximumSum;
+    }
+
+    int getMaximumCount() {
+        return maximumCount;
+    }
+}
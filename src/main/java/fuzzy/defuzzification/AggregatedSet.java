@@ -0,0 +1,51 @@
+package fuzzy.defuzzification;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Aggregated output fuzzy set handed to a {@link DefuzzificationMethod}.
+ * Membership degrees are exchanged as primitive doubles.
+ */
+public interface AggregatedSet {
+    /**
+     * Gets the aggregated membership degree at x.
+     */
+    double getMembership(double x);
+
+    double getMinDomain();
+
+    double getMaxDomain();
+
+    /**
+     * Gets the membership at sample point index of an even grid with samples
+     * intervals, i.e. at minDomain + index * ((maxDomain - minDomain) / samples).
+     * Implementations may answer from precomputed values; the result must equal
+     * {@link #getMembership(double)} at that point.
+     */
+    default double getSampledMembership(int index, int samples) {
+        double minDomain = getMinDomain();
+        return getMembership(minDomain + index * ((getMaxDomain() - minDomain) / samples));
+    }
+
+    /**
+     * Wraps a primitive membership function defined over [minDomain, maxDomain].
+     */
+    static AggregatedSet of(DoubleUnaryOperator membership, double minDomain, double maxDomain) {
+        return new AggregatedSet() {
+            @Override
+            public double getMembership(double x) {
+                return membership.applyAsDouble(x);
+            }
+
+            @Override
+            public double getMinDomain() {
+                return minDomain;
+            }
+
+            @Override
+            public double getMaxDomain() {
+                return maxDomain;
+            }
+        };
+    }
+}
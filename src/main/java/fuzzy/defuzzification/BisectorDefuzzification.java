@@ -0,0 +1,47 @@
+package fuzzy.defuzzification;
+
+import java.util.function.Function;
+
+/**
+ * Bisector defuzzification method.
+ * Returns the point that divides the area under the aggregated membership
+ * function into two equal halves, integrating the sampled set piecewise
+ * linearly. An {@link AggregatedCurve} with the same sample count is
+ * answered by binary search over its prefix sums; any other set is first
+ * sampled into a per-thread curve.
+ */
+public class BisectorDefuzzification implements DefuzzificationMethod {
+    private final int samples;
+    private final ThreadLocal<AggregatedCurve> curves = ThreadLocal.withInitial(AggregatedCurve::new);
+
+    public BisectorDefuzzification() {
+        this(AggregatedCurve.DEFAULT_SAMPLES);
+    }
+
+    public BisectorDefuzzification(int samples) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("Number of samples must be positive");
+        }
+        this.samples = samples;
+    }
+
+    @Override
+    public double defuzzify(Function<Double, Double> aggregatedMF,
+            double minDomain, double maxDomain) {
+        return defuzzify(AggregatedSet.of(aggregatedMF::apply, minDomain, maxDomain));
+    }
+
+    @Override
+    public double defuzzify(AggregatedSet aggregatedSet) {
+        if (aggregatedSet instanceof AggregatedCurve && ((AggregatedCurve) aggregatedSet).getSamples() == samples) {
+            return ((AggregatedCurve) aggregatedSet).getBisector();
+        }
+        AggregatedCurve curve = curves.get();
+        curve.sample(aggregatedSet, samples);
+        return curve.getBisector();
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+}
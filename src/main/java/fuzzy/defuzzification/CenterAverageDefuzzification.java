@@ -0,0 +1,172 @@
+package fuzzy.defuzzification;
+
+import fuzzy.membership.GaussianMF;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.PiecewiseLinearMF;
+import fuzzy.membership.TrapezoidalMF;
+import fuzzy.membership.TriangularMF;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Base of the defuzzifiers that average one representative point per fired
+ * output set, weighted by the height of the set after implication:
+ * sum(height * centre) / sum(height). The cost depends on the number of
+ * output sets, not on a sample count. Centres are computed once per
+ * membership function and thread.
+ *
+ * The output sets are read from a {@link MamdaniAggregatedSet}, directly or
+ * as the source of an {@link AggregatedCurve}. Sets without that structure
+ * fall back to sampled centroid defuzzification.
+ */
+abstract class CenterAverageDefuzzification implements DefuzzificationMethod {
+    private static final int SHAPE_SAMPLES = 1000;
+
+    private final CentroidDefuzzification fallback = new CentroidDefuzzification();
+    private final ThreadLocal<Centres> centres = ThreadLocal.withInitial(Centres::new);
+
+    @Override
+    public double defuzzify(Function<Double, Double> aggregatedMF,
+            double minDomain, double maxDomain) {
+        return fallback.defuzzify(aggregatedMF, minDomain, maxDomain);
+    }
+
+    @Override
+    public double defuzzify(AggregatedSet aggregatedSet) {
+        AggregatedSet source = aggregatedSet instanceof AggregatedCurve
+                ? ((AggregatedCurve) aggregatedSet).getSource() : aggregatedSet;
+        if (!(source instanceof MamdaniAggregatedSet)) {
+            return fallback.defuzzify(aggregatedSet);
+        }
+        MamdaniAggregatedSet set = (MamdaniAggregatedSet) source;
+        Centres cache = centres.get();
+        double weightedSum = 0.0;
+        double weightSum = 0.0;
+        for (int i = 0; i < set.getSetCount(); i++) {
+            double strength = set.getStrength(i);
+            if (strength > 0) {
+                MembershipFunction mf = set.getMembershipFunction(i);
+                double height = set.getImplicationOperator().apply(strength, mf.calculate(cache.peakOf(set, i)));
+                if (height > 0) {
+                    weightedSum += height * cache.centreOf(set, i);
+                    weightSum += height;
+                }
+            }
+        }
+        if (weightSum == 0.0) {
+            return (set.getMinDomain() + set.getMaxDomain()) / 2.0;
+        }
+        return weightedSum / weightSum;
+    }
+
+    /**
+     * Gets the representative point of an output set.
+     */
+    abstract double centre(MembershipFunction mf);
+
+    /**
+     * Gets the middle of the points where a membership function is highest.
+     */
+    static double peak(MembershipFunction mf) {
+        if (mf instanceof TriangularMF) {
+            return ((TriangularMF) mf).getB();
+        } else if (mf instanceof TrapezoidalMF) {
+            TrapezoidalMF trapezoid = (TrapezoidalMF) mf;
+            return (trapezoid.getB() + trapezoid.getC()) / 2.0;
+        } else if (mf instanceof GaussianMF) {
+            return ((GaussianMF) mf).getCenter();
+        }
+        double[] points;
+        if (mf instanceof PiecewiseLinearMF) {
+            points = ((PiecewiseLinearMF) mf).getBreakpoints();
+        } else {
+            double[] domain = mf.getDomain();
+            points = new double[SHAPE_SAMPLES + 1];
+            for (int i = 0; i <= SHAPE_SAMPLES; i++) {
+                points[i] = domain[0] + i * ((domain[1] - domain[0]) / SHAPE_SAMPLES);
+            }
+        }
+        double highest = Double.NEGATIVE_INFINITY;
+        double first = Double.NaN;
+        double last = Double.NaN;
+        for (double x : points) {
+            double mu = mf.calculate(x);
+            if (mu > highest) {
+                highest = mu;
+                first = x;
+                last = x;
+            } else if (mu == highest) {
+                last = x;
+            }
+        }
+        return (first + last) / 2.0;
+    }
+
+    /**
+     * Gets the centroid of a membership function over its domain: exact for
+     * piecewise-linear functions and Gaussians, sampled otherwise.
+     */
+    static double centroid(MembershipFunction mf) {
+        if (mf instanceof GaussianMF) {
+            return ((GaussianMF) mf).getCenter();
+        }
+        double area = 0.0;
+        double moment = 0.0;
+        if (mf instanceof PiecewiseLinearMF) {
+            double[] points = ((PiecewiseLinearMF) mf).getBreakpoints();
+            for (int p = 1; p < points.length; p++) {
+                double x0 = points[p - 1];
+                double x1 = points[p];
+                double y0 = mf.calculate(x0);
+                double y1 = mf.calculate(x1);
+                double width = x1 - x0;
+                area += width * (y0 + y1) / 2.0;
+                moment += width * (x0 * (2.0 * y0 + y1) + x1 * (y0 + 2.0 * y1)) / 6.0;
+            }
+        } else {
+            double[] domain = mf.getDomain();
+            for (int i = 0; i <= SHAPE_SAMPLES; i++) {
+                double x = domain[0] + i * ((domain[1] - domain[0]) / SHAPE_SAMPLES);
+                double mu = mf.calculate(x);
+                area += mu;
+                moment += x * mu;
+            }
+        }
+        return area > 0 ? moment / area : peak(mf);
+    }
+
+    /**
+     * Per-thread peaks and centres, remembered while an output set keeps the
+     * same membership function.
+     */
+    private final class Centres {
+        private MembershipFunction[] functions = new MembershipFunction[0];
+        private double[] peaks = new double[0];
+        private double[] centres = new double[0];
+
+        double peakOf(MamdaniAggregatedSet set, int index) {
+            update(set, index);
+            return peaks[index];
+        }
+
+        double centreOf(MamdaniAggregatedSet set, int index) {
+            update(set, index);
+            return centres[index];
+        }
+
+        private void update(MamdaniAggregatedSet set, int index) {
+            if (functions.length < set.getSetCount()) {
+                functions = Arrays.copyOf(functions, set.getSetCount());
+                peaks = Arrays.copyOf(peaks, set.getSetCount());
+                centres = Arrays.copyOf(centres, set.getSetCount());
+            }
+            MembershipFunction mf = set.getMembershipFunction(index);
+            if (functions[index] != mf) {
+                peaks[index] = peak(mf);
+                centres[index] = centre(mf);
+                functions[index] = mf;
+            }
+        }
+    }
+}
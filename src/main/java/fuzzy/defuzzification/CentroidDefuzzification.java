@@ -1,5 +1,7 @@
 package fuzzy.defuzzification;
 
+import fuzzy.membership.ArrayKernels;
+
 import java.util.function.Function;
 
 /**
@@ -9,30 +11,71 @@ import java.util.function.Function;
 public class CentroidDefuzzification implements DefuzzificationMethod {
     private static final int DEFAULT_SAMPLES = 1000;
     private final int samples;
+    private final ArrayKernels kernels; // null for the plain summation loop
+    private final ThreadLocal<double[][]> sampleBuffers; // sampled memberships, centroid sums
 
     public CentroidDefuzzification() {
         this(DEFAULT_SAMPLES);
     }
 
     public CentroidDefuzzification(int samples) {
+        this(samples, null);
+    }
+
+    /**
+     * Creates a centroid defuzzifier that samples the aggregated set into a
+     * buffer and computes the centroid sums with array kernels, such as
+     * {@link ArrayKernels#get()}. Vector kernels may sum in a different order,
+     * so results can differ from the plain loop in the last bits.
+     *
+     * @param kernels kernels for the centroid sums, or null for the plain loop
+     */
+    public CentroidDefuzzification(int samples, ArrayKernels kernels) {
         if (samples <= 0) {
             throw new IllegalArgumentException("Number of samples must be positive");
         }
         this.samples = samples;
+        this.kernels = kernels;
+        this.sampleBuffers = kernels == null ? null
+                : ThreadLocal.withInitial(() -> new double[][] { new double[samples + 1], new double[2] });
     }
 
     @Override
     public double defuzzify(Function<Double, Double> aggregatedMF,
             double minDomain, double maxDomain) {
+        return defuzzify(AggregatedSet.of(aggregatedMF::apply, minDomain, maxDomain));
+    }
+
+    @Override
+    public double defuzzify(AggregatedSet aggregatedSet) {
+        double minDomain = aggregatedSet.getMinDomain();
+        double maxDomain = aggregatedSet.getMaxDomain();
         double step = (maxDomain - minDomain) / samples;
         double numerator = 0.0;
         double denominator = 0.0;
 
-        for (int i = 0; i <= samples; i++) {
-            double x = minDomain + i * step;
-            double mu = aggregatedMF.apply(x);
-            numerator += x * mu;
-            denominator += mu;
+        if (kernels == null && aggregatedSet instanceof AggregatedCurve
+                && ((AggregatedCurve) aggregatedSet).getSamples() == samples) {
+            AggregatedCurve curve = (AggregatedCurve) aggregatedSet;
+            numerator = curve.getMomentSum();
+            denominator = curve.getMembershipSum();
+        } else if (kernels != null) {
+            double[][] buffers = sampleBuffers.get();
+            double[] memberships = buffers[0];
+            double[] sums = buffers[1];
+            for (int i = 0; i <= samples; i++) {
+                memberships[i] = aggregatedSet.getSampledMembership(i, samples);
+            }
+            kernels.centroidSums(memberships, samples + 1, minDomain, step, sums);
+            numerator = sums[0];
+            denominator = sums[1];
+        } else {
+            for (int i = 0; i <= samples; i++) {
+                double x = minDomain + i * step;
+                double mu = aggregatedSet.getSampledMembership(i, samples);
+                numerator += x * mu;
+                denominator += mu;
+            }
         }
 
         if (denominator == 0.0) {
@@ -41,4 +84,15 @@ public class CentroidDefuzzification implements DefuzzificationMethod {
 
         return numerator / denominator;
     }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Gets the kernels used for the centroid sums, or null for the plain loop.
+     */
+    public ArrayKernels getKernels() {
+        return kernels;
+    }
 }
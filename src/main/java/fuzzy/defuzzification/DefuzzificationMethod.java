@@ -14,4 +14,18 @@ public interface DefuzzificationMethod {
      */
     double defuzzify(java.util.function.Function<Double, Double> aggregatedMF,
             double minDomain, double maxDomain);
+
+    /**
+     * Defuzzifies an aggregated output fuzzy set without boxing. The evaluation
+     * pipeline always calls this method; the default adapts it to
+     * {@link #defuzzify(java.util.function.Function, double, double)} so
+     * existing implementations keep working.
+     * 
+     * @param aggregatedSet the aggregated output fuzzy set
+     * @return crisp output value
+     */
+    default double defuzzify(AggregatedSet aggregatedSet) {
+        return defuzzify(x -> aggregatedSet.getMembership(x),
+                aggregatedSet.getMinDomain(), aggregatedSet.getMaxDomain());
+    }
 }
@@ -0,0 +1,52 @@
+package fuzzy.defuzzification;
+
+import java.util.function.Function;
+
+/**
+ * Exact centroid defuzzification for piecewise-linear output sets.
+ * When every fired output set is a {@link fuzzy.membership.PiecewiseLinearMF}
+ * and the implication is minimum or product, the aggregated set is a polygon
+ * and its centroid is integrated analytically segment by segment.
+ * Other sets (e.g. Gaussian) fall back to sampled centroid defuzzification.
+ * Each thread reuses its own polygon buffers.
+ */
+public class ExactCentroidDefuzzification implements DefuzzificationMethod {
+    private final CentroidDefuzzification fallback;
+    private final ThreadLocal<PiecewiseLinearEnvelope> envelopes =
+            ThreadLocal.withInitial(PiecewiseLinearEnvelope::new);
+
+    public ExactCentroidDefuzzification() {
+        this(new CentroidDefuzzification());
+    }
+
+    /**
+     * @param fallbackSamples number of samples used for non-linear sets
+     */
+    public ExactCentroidDefuzzification(int fallbackSamples) {
+        this(new CentroidDefuzzification(fallbackSamples));
+    }
+
+    private ExactCentroidDefuzzification(CentroidDefuzzification fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public double defuzzify(Function<Double, Double> aggregatedMF,
+            double minDomain, double maxDomain) {
+        return fallback.defuzzify(aggregatedMF, minDomain, maxDomain);
+    }
+
+    @Override
+    public double defuzzify(AggregatedSet aggregatedSet) {
+        PiecewiseLinearEnvelope envelope = envelopes.get();
+        if (!envelope.build(aggregatedSet)) {
+            return fallback.defuzzify(aggregatedSet);
+        }
+
+        double centroid = envelope.centroid();
+        if (Double.isNaN(centroid)) {
+            return (aggregatedSet.getMinDomain() + aggregatedSet.getMaxDomain()) / 2.0;
+        }
+        return centroid;
+    }
+}
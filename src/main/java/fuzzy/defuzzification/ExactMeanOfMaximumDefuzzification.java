@@ -0,0 +1,26 @@
+package fuzzy.defuzzification;
+
+/**
+ * Exact Mean of Maximum (MOM) defuzzification. Returns the midpoint of the
+ * region where the aggregated membership is maximal, weighting plateaus by
+ * their length (or the mean of the points, if the maximum is only reached at
+ * isolated points). For piecewise-linear output sets with minimum or product
+ * implication the region is computed from the clipped or scaled set
+ * geometry, without sampling; other sets are sampled on an even grid.
+ */
+public class ExactMeanOfMaximumDefuzzification extends MaximumDefuzzification {
+    public ExactMeanOfMaximumDefuzzification() {
+    }
+
+    /**
+     * @param fallbackSamples number of samples used for non-linear sets
+     */
+    public ExactMeanOfMaximumDefuzzification(int fallbackSamples) {
+        super(fallbackSamples);
+    }
+
+    @Override
+    double select(MaximumPlateau plateau) {
+        return plateau.mean();
+    }
+}
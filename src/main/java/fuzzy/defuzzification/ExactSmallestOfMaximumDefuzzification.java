@@ -0,0 +1,25 @@
+package fuzzy.defuzzification;
+
+/**
+ * Exact Smallest of Maximum (SOM) defuzzification. Returns the smallest point
+ * where the aggregated membership is maximal. For piecewise-linear output
+ * sets with minimum or product implication the point is computed from the
+ * clipped or scaled set geometry, without sampling; other sets are sampled
+ * on an even grid.
+ */
+public class ExactSmallestOfMaximumDefuzzification extends MaximumDefuzzification {
+    public ExactSmallestOfMaximumDefuzzification() {
+    }
+
+    /**
+     * @param fallbackSamples number of samples used for non-linear sets
+     */
+    public ExactSmallestOfMaximumDefuzzification(int fallbackSamples) {
+        super(fallbackSamples);
+    }
+
+    @Override
+    double select(MaximumPlateau plateau) {
+        return plateau.smallest();
+    }
+}
@@ -0,0 +1,17 @@
+package fuzzy.defuzzification;
+
+import fuzzy.membership.MembershipFunction;
+
+/**
+ * Height (centre average) defuzzification method.
+ * Averages the peak position of every fired output set, weighted by the
+ * height of the set after implication. The peak position is the middle of
+ * the points where the output set's membership is highest, e.g. the apex of
+ * a triangle or the middle of a trapezoid's plateau.
+ */
+public class HeightDefuzzification extends CenterAverageDefuzzification {
+    @Override
+    double centre(MembershipFunction mf) {
+        return peak(mf);
+    }
+}
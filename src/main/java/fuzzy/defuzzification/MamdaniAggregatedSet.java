@@ -0,0 +1,104 @@
+package fuzzy.defuzzification;
+
+import fuzzy.membership.MembershipFunction;
+import fuzzy.operators.ImplicationOperator;
+
+/**
+ * Aggregated Mamdani output: each output set is shaped by the implication
+ * operator with its rule strength, and the results are combined by maximum.
+ * Sets with a strength of zero did not fire and are ignored.
+ * The strengths array is read live, so callers may refill it between
+ * evaluations instead of creating a new instance. An instance is meant for
+ * one thread at a time.
+ */
+public final class MamdaniAggregatedSet implements AggregatedSet {
+    private final MembershipFunction[] outputSets;
+    private final double[] strengths;
+    private final ImplicationOperator implicationOperator;
+    private final double minDomain;
+    private final double maxDomain;
+    private final OutputSampleCache sampleCache;
+    private double[][] sampleRows;
+    private int sampleRowsResolution;
+
+    public MamdaniAggregatedSet(MembershipFunction[] outputSets, double[] strengths,
+            ImplicationOperator implicationOperator, double minDomain, double maxDomain) {
+        this(outputSets, strengths, implicationOperator, minDomain, maxDomain, null);
+    }
+
+    /**
+     * @param sampleCache cached output set memberships for sampled
+     *                    defuzzification, or null to compute them on demand
+     */
+    public MamdaniAggregatedSet(MembershipFunction[] outputSets, double[] strengths,
+            ImplicationOperator implicationOperator, double minDomain, double maxDomain,
+            OutputSampleCache sampleCache) {
+        if (outputSets.length != strengths.length) {
+            throw new IllegalArgumentException("Expected one strength per output set");
+        }
+        this.outputSets = outputSets;
+        this.strengths = strengths;
+        this.implicationOperator = implicationOperator;
+        this.minDomain = minDomain;
+        this.maxDomain = maxDomain;
+        this.sampleCache = sampleCache;
+    }
+
+    @Override
+    public double getMembership(double x) {
+        double maxMu = 0.0;
+        for (int i = 0; i < outputSets.length; i++) {
+            if (strengths[i] > 0) {
+                double mu = implicationOperator.apply(strengths[i], outputSets[i].calculate(x));
+                maxMu = Math.max(maxMu, mu);
+            }
+        }
+        return maxMu;
+    }
+
+    @Override
+    public double getSampledMembership(int index, int samples) {
+        if (sampleCache == null) {
+            return AggregatedSet.super.getSampledMembership(index, samples);
+        }
+        if (sampleRows == null || sampleRowsResolution != samples) {
+            sampleRows = sampleCache.getRows(samples);
+            sampleRowsResolution = samples;
+        }
+
+        double maxMu = 0.0;
+        for (int i = 0; i < outputSets.length; i++) {
+            if (strengths[i] > 0) {
+                double mu = implicationOperator.apply(strengths[i], sampleRows[i][index]);
+                maxMu = Math.max(maxMu, mu);
+            }
+        }
+        return maxMu;
+    }
+
+    @Override
+    public double getMinDomain() {
+        return minDomain;
+    }
+
+    @Override
+    public double getMaxDomain() {
+        return maxDomain;
+    }
+
+    public int getSetCount() {
+        return outputSets.length;
+    }
+
+    public MembershipFunction getMembershipFunction(int index) {
+        return outputSets[index];
+    }
+
+    public double getStrength(int index) {
+        return strengths[index];
+    }
+
+    public ImplicationOperator getImplicationOperator() {
+        return implicationOperator;
+    }
+}
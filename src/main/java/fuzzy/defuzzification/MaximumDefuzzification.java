@@ -0,0 +1,52 @@
+package fuzzy.defuzzification;
+
+import java.util.function.Function;
+
+/**
+ * Base of the defuzzifiers that pick a point of the set where the aggregated
+ * membership is maximal. The maximum is located exactly for piecewise-linear
+ * output sets with minimum or product implication and by sampling otherwise.
+ */
+abstract class MaximumDefuzzification implements DefuzzificationMethod {
+    private static final int DEFAULT_SAMPLES = 1000;
+    private final int fallbackSamples;
+    private final ThreadLocal<MaximumPlateau> plateaus = ThreadLocal.withInitial(MaximumPlateau::new);
+
+    MaximumDefuzzification() {
+        this(DEFAULT_SAMPLES);
+    }
+
+    MaximumDefuzzification(int fallbackSamples) {
+        if (fallbackSamples <= 0) {
+            throw new IllegalArgumentException("Number of samples must be positive");
+        }
+        this.fallbackSamples = fallbackSamples;
+    }
+
+    @Override
+    public double defuzzify(Function<Double, Double> aggregatedMF,
+            double minDomain, double maxDomain) {
+        return defuzzify(AggregatedSet.of(aggregatedMF::apply, minDomain, maxDomain));
+    }
+
+    @Override
+    public double defuzzify(AggregatedSet aggregatedSet) {
+        MaximumPlateau plateau = plateaus.get();
+        if (!plateau.build(aggregatedSet)) {
+            plateau.sample(aggregatedSet, fallbackSamples);
+        }
+        if (plateau.isEmpty()) {
+            return (aggregatedSet.getMinDomain() + aggregatedSet.getMaxDomain()) / 2.0;
+        }
+        return select(plateau);
+    }
+
+    /**
+     * Picks the crisp value from a non-empty maximum.
+     */
+    abstract double select(MaximumPlateau plateau);
+
+    public int getFallbackSamples() {
+        return fallbackSamples;
+    }
+}
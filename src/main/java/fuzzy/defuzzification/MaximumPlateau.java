@@ -0,0 +1,258 @@
+package fuzzy.defuzzification;
+
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.PiecewiseLinearMF;
+import fuzzy.operators.ImplicationOperator;
+import fuzzy.operators.MinImplication;
+import fuzzy.operators.ProductImplication;
+
+import java.util.Arrays;
+
+/**
+ * Set of points where an aggregated set reaches its height, as sorted
+ * disjoint intervals (possibly single points).
+ *
+ * For a Mamdani aggregated set whose fired output sets are all piecewise
+ * linear, with minimum or product implication, the intervals are computed
+ * from the geometry of each implied set: a set clipped at strength s is at
+ * the height wherever its membership is at least s, and an unclipped or
+ * scaled set wherever its membership equals its peak. Otherwise the set can
+ * be sampled on an even grid, giving one point per sample at the maximum.
+ *
+ * A plateau can be rebuilt for one aggregated set after another; its buffers
+ * only grow. An instance is meant for one thread at a time.
+ */
+final class MaximumPlateau {
+    private double[] lows = new double[8];
+    private double[] highs = new double[8];
+    private int size;
+
+    private MembershipFunction[] cachedFunctions = new MembershipFunction[0]; // per output set
+    private double[][] cachedBreakpoints = new double[0][];
+
+    /**
+     * Replaces this plateau with the maximum of an aggregated set.
+     * An {@link AggregatedCurve} is read through its source set.
+     *
+     * @return false if the set is not piecewise linear
+     */
+    boolean build(AggregatedSet aggregatedSet) {
+        size = 0;
+        if (aggregatedSet instanceof AggregatedCurve) {
+            aggregatedSet = ((AggregatedCurve) aggregatedSet).getSource();
+        }
+        if (!(aggregatedSet instanceof MamdaniAggregatedSet)) {
+            return false;
+        }
+        MamdaniAggregatedSet set = (MamdaniAggregatedSet) aggregatedSet;
+        ImplicationOperator implication = set.getImplicationOperator();
+        boolean clipping = implication instanceof MinImplication;
+        if (!clipping && !(implication instanceof ProductImplication)) {
+            return false;
+        }
+        for (int i = 0; i < set.getSetCount(); i++) {
+            if (set.getStrength(i) > 0 && !(set.getMembershipFunction(i) instanceof PiecewiseLinearMF)) {
+                return false;
+            }
+        }
+
+        double minDomain = set.getMinDomain();
+        double maxDomain = set.getMaxDomain();
+        double height = 0.0;
+        for (int i = 0; i < set.getSetCount(); i++) {
+            double strength = set.getStrength(i);
+            if (strength > 0) {
+                double peak = peak(set.getMembershipFunction(i), breakpointsOf(set, i), minDomain, maxDomain);
+                height = Math.max(height, implication.apply(strength, peak));
+            }
+        }
+        if (!(height > 0)) {
+            return true;
+        }
+
+        boolean sorted = true;
+        for (int i = 0; i < set.getSetCount(); i++) {
+            double strength = set.getStrength(i);
+            if (strength <= 0) {
+                continue;
+            }
+            MembershipFunction mf = set.getMembershipFunction(i);
+            double[] breakpoints = breakpointsOf(set, i);
+            double peak = peak(mf, breakpoints, minDomain, maxDomain);
+            if (implication.apply(strength, peak) != height) {
+                continue;
+            }
+            double level = clipping && strength < peak ? strength : peak;
+            double previousHigh = size > 0 ? highs[size - 1] : Double.NEGATIVE_INFINITY;
+            int first = size;
+            addSuperlevelSet(mf, breakpoints, level, minDomain, maxDomain);
+            if (size > first && lows[first] < previousHigh) {
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            sortByLow();
+        }
+        merge();
+        return true;
+    }
+
+    /**
+     * Replaces this plateau with the samples of an even grid at which the
+     * set reaches its sampled maximum.
+     */
+    void sample(AggregatedSet aggregatedSet, int samples) {
+        size = 0;
+        double minDomain = aggregatedSet.getMinDomain();
+        double step = (aggregatedSet.getMaxDomain() - minDomain) / samples;
+        double maxMu = 0.0;
+        for (int i = 0; i <= samples; i++) {
+            double x = minDomain + i * step;
+            double mu = aggregatedSet.getSampledMembership(i, samples);
+            if (mu > maxMu) {
+                maxMu = mu;
+                size = 0;
+                add(x, x);
+            } else if (mu == maxMu && maxMu > 0) {
+                add(x, x);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the mean of the maximum: the midpoint of the intervals weighted by
+     * length, or the mean of the points if every interval is a single point.
+     */
+    double mean() {
+        double length = 0.0;
+        double moment = 0.0;
+        double sum = 0.0;
+        for (int k = 0; k < size; k++) {
+            double width = highs[k] - lows[k];
+            length += width;
+            moment += width * (lows[k] + highs[k]) / 2.0;
+            sum += lows[k];
+        }
+        return length > 0 ? moment / length : sum / size;
+    }
+
+    double smallest() {
+        return lows[0];
+    }
+
+    double largest() {
+        return highs[size - 1];
+    }
+
+    /**
+     * Gets the largest membership of a set over the domain, which is reached
+     * at a breakpoint or a domain bound.
+     */
+    private static double peak(MembershipFunction mf, double[] breakpoints, double minDomain, double maxDomain) {
+        double peak = Math.max(mf.calculate(minDomain), mf.calculate(maxDomain));
+        for (double x : breakpoints) {
+            if (x > minDomain && x < maxDomain) {
+                peak = Math.max(peak, mf.calculate(x));
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Adds the intervals of the domain where a set's membership is at least
+     * level, walking its linear pieces from left to right.
+     */
+    private void addSuperlevelSet(MembershipFunction mf, double[] breakpoints, double level,
+            double minDomain, double maxDomain) {
+        double u = minDomain;
+        double yu = mf.calculate(u);
+        for (int p = 0; p <= breakpoints.length; p++) {
+            double v = p < breakpoints.length ? Math.min(breakpoints[p], maxDomain) : maxDomain;
+            if (v <= u) {
+                continue;
+            }
+            double yv = mf.calculate(v);
+            if (yu >= level && yv >= level) {
+                add(u, v);
+            } else if (yu >= level) {
+                add(u, u + (yu - level) / (yu - yv) * (v - u));
+            } else if (yv >= level) {
+                add(v - (yv - level) / (yv - yu) * (v - u), v);
+            }
+            u = v;
+            yu = yv;
+        }
+        if (u == minDomain && yu >= level) {
+            // degenerate domain of a single point
+            add(u, u);
+        }
+    }
+
+    private void add(double low, double high) {
+        if (size > 0 && low <= highs[size - 1] && low >= lows[size - 1]) {
+            highs[size - 1] = Math.max(highs[size - 1], high);
+            return;
+        }
+        if (size == lows.length) {
+            lows = Arrays.copyOf(lows, size * 2);
+            highs = Arrays.copyOf(highs, size * 2);
+        }
+        lows[size] = low;
+        highs[size] = high;
+        size++;
+    }
+
+    /**
+     * Insertion sort of the intervals by lower bound; there are rarely more
+     * than a few.
+     */
+    private void sortByLow() {
+        for (int i = 1; i < size; i++) {
+            double low = lows[i];
+            double high = highs[i];
+            int j = i - 1;
+            while (j >= 0 && lows[j] > low) {
+                lows[j + 1] = lows[j];
+                highs[j + 1] = highs[j];
+                j--;
+            }
+            lows[j + 1] = low;
+            highs[j + 1] = high;
+        }
+    }
+
+    private void merge() {
+        int merged = 0;
+        for (int k = 0; k < size; k++) {
+            if (merged > 0 && lows[k] <= highs[merged - 1]) {
+                highs[merged - 1] = Math.max(highs[merged - 1], highs[k]);
+            } else {
+                lows[merged] = lows[k];
+                highs[merged] = highs[k];
+                merged++;
+            }
+        }
+        size = merged;
+    }
+
+    /**
+     * Gets the breakpoints of an output set, remembering them while the set
+     * keeps the same membership function.
+     */
+    private double[] breakpointsOf(MamdaniAggregatedSet set, int index) {
+        if (cachedFunctions.length < set.getSetCount()) {
+            cachedFunctions = Arrays.copyOf(cachedFunctions, set.getSetCount());
+            cachedBreakpoints = Arrays.copyOf(cachedBreakpoints, set.getSetCount());
+        }
+        MembershipFunction mf = set.getMembershipFunction(index);
+        if (cachedFunctions[index] != mf) {
+            cachedBreakpoints[index] = ((PiecewiseLinearMF) mf).getBreakpoints();
+            cachedFunctions[index] = mf;
+        }
+        return cachedBreakpoints[index];
+    }
+}
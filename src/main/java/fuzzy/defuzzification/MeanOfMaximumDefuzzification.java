@@ -1,8 +1,6 @@
 package fuzzy.defuzzification;
 
 import java.util.function.Function;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Mean of Maximum (MOM) defuzzification method.
@@ -26,31 +24,45 @@ public class MeanOfMaximumDefuzzification implements DefuzzificationMethod {
     @Override
     public double defuzzify(Function<Double, Double> aggregatedMF,
             double minDomain, double maxDomain) {
+        return defuzzify(AggregatedSet.of(aggregatedMF::apply, minDomain, maxDomain));
+    }
+
+    @Override
+    public double defuzzify(AggregatedSet aggregatedSet) {
+        double minDomain = aggregatedSet.getMinDomain();
+        double maxDomain = aggregatedSet.getMaxDomain();
+        if (aggregatedSet instanceof AggregatedCurve && ((AggregatedCurve) aggregatedSet).getSamples() == samples) {
+            AggregatedCurve curve = (AggregatedCurve) aggregatedSet;
+            int count = curve.getMaximumCount();
+            return count == 0 ? (minDomain + maxDomain) / 2.0 : curve.getMaximumSum() / count;
+        }
         double step = (maxDomain - minDomain) / samples;
         double maxMu = 0.0;
-        List<Double> maxPoints = new ArrayList<>();
+        double sum = 0.0;
+        int count = 0;
 
         for (int i = 0; i <= samples; i++) {
             double x = minDomain + i * step;
-            double mu = aggregatedMF.apply(x);
+            double mu = aggregatedSet.getSampledMembership(i, samples);
 
             if (mu > maxMu) {
                 maxMu = mu;
-                maxPoints.clear();
-                maxPoints.add(x);
+                sum = x;
+                count = 1;
             } else if (mu == maxMu && maxMu > 0) {
-                maxPoints.add(x);
+                sum += x;
+                count++;
             }
         }
 
-        if (maxPoints.isEmpty()) {
+        if (count == 0) {
             return (minDomain + maxDomain) / 2.0;
         }
 
-        double sum = 0.0;
-        for (Double point : maxPoints) {
-            sum += point;
-        }
-        return sum / maxPoints.size();
+        return sum / count;
+    }
+
+    public int getSamples() {
+        return samples;
     }
 }
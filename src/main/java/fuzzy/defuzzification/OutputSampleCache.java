@@ -0,0 +1,84 @@
+package fuzzy.defuzzification;
+
+import fuzzy.membership.ArrayKernels;
+import fuzzy.membership.MembershipFunction;
+
+/**
+ * Caches the membership of every output fuzzy set at the evenly spaced
+ * sample points used by sampling defuzzifiers. Rows are computed once per
+ * sample resolution and shared by all evaluations, so implication and
+ * aggregation reduce to a pass over cached values. Rows are sampled with
+ * {@link ArrayKernels#exact()}, so they equal the membership functions.
+ * The cache is safe to share between threads.
+ */
+public final class OutputSampleCache {
+    private static final int MAX_RESOLUTIONS = 4;
+
+    private final MembershipFunction[] outputSets;
+    private final double minDomain;
+    private final double maxDomain;
+    private volatile Rows[] resolutions = new Rows[0];
+
+    public OutputSampleCache(MembershipFunction[] outputSets, double minDomain, double maxDomain) {
+        this.outputSets = outputSets.clone();
+        this.minDomain = minDomain;
+        this.maxDomain = maxDomain;
+    }
+
+    /**
+     * Checks whether this cache was built for the given sets and domain.
+     */
+    public boolean matches(MembershipFunction[] sets, double min, double max) {
+        if (sets.length != outputSets.length || min != minDomain || max != maxDomain) {
+            return false;
+        }
+        for (int i = 0; i < sets.length; i++) {
+            if (sets[i] != outputSets[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the cached memberships for a sample resolution: row s holds the
+     * membership of output set s at minDomain + i * ((maxDomain - minDomain) / samples)
+     * for i = 0..samples. The returned arrays must not be modified.
+     */
+    public double[][] getRows(int samples) {
+        Rows[] current = resolutions;
+        for (Rows rows : current) {
+            if (rows.samples == samples) {
+                return rows.values;
+            }
+        }
+
+        Rows created = new Rows(samples, computeRows(samples));
+        int kept = Math.min(current.length, MAX_RESOLUTIONS - 1);
+        Rows[] next = new Rows[kept + 1];
+        next[0] = created;
+        System.arraycopy(current, 0, next, 1, kept);
+        resolutions = next;
+        return created.values;
+    }
+
+    private double[][] computeRows(int samples) {
+        double step = (maxDomain - minDomain) / samples;
+        double[][] values = new double[outputSets.length][samples + 1];
+        ArrayKernels kernels = ArrayKernels.exact();
+        for (int s = 0; s < outputSets.length; s++) {
+            kernels.sample(outputSets[s], minDomain, step, samples + 1, values[s]);
+        }
+        return values;
+    }
+
+    private static final class Rows {
+        private final int samples;
+        private final double[][] values;
+
+        Rows(int samples, double[][] values) {
+            this.samples = samples;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package fuzzy.defuzzification;
+
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.PiecewiseLinearMF;
+import fuzzy.operators.ImplicationOperator;
+import fuzzy.operators.MinImplication;
+import fuzzy.operators.ProductImplication;
+
+import java.util.Arrays;
+
+/**
+ * Exact polygon of a Mamdani aggregated set whose fired output sets are all
+ * piecewise linear and whose implication is minimum or product.
+ * The aggregated membership is linear between consecutive vertices.
+ *
+ * An envelope can be rebuilt for one aggregated set after another; its
+ * buffers only grow, so repeated builds allocate nothing once they are large
+ * enough. An instance is meant for one thread at a time.
+ */
+final class PiecewiseLinearEnvelope {
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private int size;
+
+    private int[] active = new int[0];
+    private double[][] breakpoints = new double[0][];
+    private double[] knots = new double[0];
+    private double[] start = new double[0];
+    private double[] end = new double[0];
+    private MembershipFunction[] cachedFunctions = new MembershipFunction[0]; // per output set
+    private double[][] cachedBreakpoints = new double[0][];
+
+    /**
+     * Replaces this envelope with the envelope of an aggregated set.
+     * An {@link AggregatedCurve} is read through its source set.
+     *
+     * @return false if the set is not piecewise linear
+     */
+    boolean build(AggregatedSet aggregatedSet) {
+        size = 0;
+        if (aggregatedSet instanceof AggregatedCurve) {
+            aggregatedSet = ((AggregatedCurve) aggregatedSet).getSource();
+        }
+        if (!(aggregatedSet instanceof MamdaniAggregatedSet)) {
+            return false;
+        }
+        MamdaniAggregatedSet set = (MamdaniAggregatedSet) aggregatedSet;
+        ImplicationOperator implication = set.getImplicationOperator();
+        boolean clipping = implication instanceof MinImplication;
+        if (!clipping && !(implication instanceof ProductImplication)) {
+            return false;
+        }
+
+        int fired = 0;
+        int breakpointCount = 0;
+        for (int i = 0; i < set.getSetCount(); i++) {
+            if (set.getStrength(i) > 0) {
+                if (!(set.getMembershipFunction(i) instanceof PiecewiseLinearMF)) {
+                    return false;
+                }
+                fired++;
+            }
+        }
+
+        double minDomain = set.getMinDomain();
+        double maxDomain = set.getMaxDomain();
+        if (active.length < fired) {
+            active = new int[fired];
+            breakpoints = new double[fired][];
+            start = new double[fired];
+            end = new double[fired];
+        }
+        int n = 0;
+        for (int i = 0; i < set.getSetCount(); i++) {
+            if (set.getStrength(i) > 0) {
+                active[n] = i;
+                breakpoints[n] = breakpointsOf(set, i);
+                // each segment can add one clipping point besides its own breakpoints
+                breakpointCount += 2 * breakpoints[n].length;
+                n++;
+            }
+        }
+
+        // Knots where at least one implied set changes slope
+        if (knots.length < breakpointCount + 2) {
+            knots = new double[breakpointCount + 2];
+        }
+        int knotCount = 0;
+        knots[knotCount++] = minDomain;
+        knots[knotCount++] = maxDomain;
+        for (int k = 0; k < fired; k++) {
+            double[] points = breakpoints[k];
+            MembershipFunction mf = set.getMembershipFunction(active[k]);
+            double strength = set.getStrength(active[k]);
+            for (int p = 0; p < points.length; p++) {
+                if (points[p] > minDomain && points[p] < maxDomain) {
+                    knots[knotCount++] = points[p];
+                }
+                if (clipping && p + 1 < points.length) {
+                    double y0 = mf.calculate(points[p]);
+                    double y1 = mf.calculate(points[p + 1]);
+                    if ((y0 - strength) * (y1 - strength) < 0) {
+                        double x = points[p] + (strength - y0) * (points[p + 1] - points[p]) / (y1 - y0);
+                        if (x > minDomain && x < maxDomain) {
+                            knots[knotCount++] = x;
+                        }
+                    }
+                }
+            }
+        }
+        Arrays.sort(knots, 0, knotCount);
+
+        double previous = Double.NaN;
+        for (int k = 0; k < knotCount; k++) {
+            double u = knots[k];
+            if (u == previous) {
+                continue;
+            }
+            if (!Double.isNaN(previous)) {
+                for (int i = 0; i < fired; i++) {
+                    start[i] = implied(set, implication, active[i], previous);
+                    end[i] = implied(set, implication, active[i], u);
+                }
+                addSegment(previous, u, start, end, fired);
+            }
+            previous = u;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the breakpoints of an output set, remembering them while the set
+     * keeps the same membership function.
+     */
+    private double[] breakpointsOf(MamdaniAggregatedSet set, int index) {
+        if (cachedFunctions.length < set.getSetCount()) {
+            cachedFunctions = Arrays.copyOf(cachedFunctions, set.getSetCount());
+            cachedBreakpoints = Arrays.copyOf(cachedBreakpoints, set.getSetCount());
+        }
+        MembershipFunction mf = set.getMembershipFunction(index);
+        if (cachedFunctions[index] != mf) {
+            cachedBreakpoints[index] = ((PiecewiseLinearMF) mf).getBreakpoints();
+            cachedFunctions[index] = mf;
+        }
+        return cachedBreakpoints[index];
+    }
+
+    private static double implied(MamdaniAggregatedSet set, ImplicationOperator implication,
+            int index, double x) {
+        return implication.apply(set.getStrength(index), set.getMembershipFunction(index).calculate(x));
+    }
+
+    /**
+     * Adds the upper envelope of straight lines over [u, v]. Line i runs from
+     * start[i] at u to end[i] at v.
+     */
+    private void addSegment(double u, double v, double[] start, double[] end, int lines) {
+        if (lines == 0) {
+            addVertex(u, 0.0);
+            addVertex(v, 0.0);
+            return;
+        }
+
+        int current = 0;
+        for (int i = 1; i < lines; i++) {
+            if (start[i] > start[current]
+                    || (start[i] == start[current] && end[i] - start[i] > end[current] - start[current])) {
+                current = i;
+            }
+        }
+        addVertex(u, Math.max(0.0, start[current]));
+
+        // Walk the envelope: each switch moves to a strictly steeper line
+        double t = 0.0;
+        while (true) {
+            double slope = end[current] - start[current];
+            int next = -1;
+            double nextT = 1.0;
+            for (int i = 0; i < lines; i++) {
+                double otherSlope = end[i] - start[i];
+                if (otherSlope <= slope) {
+                    continue;
+                }
+                double crossing = (start[current] - start[i]) / (otherSlope - slope);
+                if (crossing > t && crossing < nextT) {
+                    next = i;
+                    nextT = crossing;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            current = next;
+            t = nextT;
+            addVertex(u + t * (v - u), Math.max(0.0, start[current] + t * (end[current] - start[current])));
+        }
+        addVertex(v, Math.max(0.0, end[current]));
+    }
+
+    private void addVertex(double x, double y) {
+        if (size > 0 && xs[size - 1] == x) {
+            ys[size - 1] = Math.max(ys[size - 1], y);
+            return;
+        }
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    double getX(int index) {
+        return xs[index];
+    }
+
+    double getY(int index) {
+        return ys[index];
+    }
+
+    /**
+     * Computes the exact centroid of the polygon.
+     *
+     * @return the centroid, or NaN if the polygon has zero area
+     */
+    double centroid() {
+        double area = 0.0;
+        double moment = 0.0;
+        for (int i = 1; i < size; i++) {
+            double x0 = xs[i - 1];
+            double x1 = xs[i];
+            double y0 = ys[i - 1];
+            double y1 = ys[i];
+            double width = x1 - x0;
+            area += width * (y0 + y1) / 2.0;
+            moment += width * (x0 * (2.0 * y0 + y1) + x1 * (y0 + 2.0 * y1)) / 6.0;
+        }
+        return area > 0.0 ? moment / area : Double.NaN;
+    }
+}
@@ -0,0 +1,16 @@
+package fuzzy.defuzzification;
+
+import fuzzy.membership.MembershipFunction;
+
+/**
+ * Weighted Average of Centers (WAC) defuzzification method.
+ * Averages the centroid of every fired output set, weighted by the height of
+ * the set after implication. For symmetric output sets it equals
+ * {@link HeightDefuzzification}.
+ */
+public class WeightedAverageOfCentersDefuzzification extends CenterAverageDefuzzification {
+    @Override
+    double centre(MembershipFunction mf) {
+        return centroid(mf);
+    }
+}
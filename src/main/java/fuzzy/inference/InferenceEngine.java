@@ -22,4 +22,20 @@ public interface InferenceEngine {
     Map<String, Double> infer(java.util.List<Rule> rules,
             Map<String, Map<String, Double>> fuzzifiedInputs,
             LinguisticVariable outputVariable);
+
+    /**
+     * Performs inference and also reports the firing strength of each rule,
+     * including its weight, in rule order. Disabled rules report 0.
+     * The default implementation cannot observe rules and reports NaN.
+     * 
+     * @param firingStrengths receives one firing strength per rule
+     * @return the same result as {@link #infer(java.util.List, Map, LinguisticVariable)}
+     */
+    default Map<String, Double> infer(java.util.List<Rule> rules,
+            Map<String, Map<String, Double>> fuzzifiedInputs,
+            LinguisticVariable outputVariable,
+            double[] firingStrengths) {
+        java.util.Arrays.fill(firingStrengths, 0, rules.size(), Double.NaN);
+        return infer(rules, fuzzifiedInputs, outputVariable);
+    }
 }
@@ -30,15 +30,31 @@ public class MamdaniInference implements InferenceEngine {
     public Map<String, Double> infer(List<Rule> rules,
             Map<String, Map<String, Double>> fuzzifiedInputs,
             LinguisticVariable outputVariable) {
+        return infer(rules, fuzzifiedInputs, outputVariable, null);
+    }
+
+    @Override
+    public Map<String, Double> infer(List<Rule> rules,
+            Map<String, Map<String, Double>> fuzzifiedInputs,
+            LinguisticVariable outputVariable,
+            double[] firingStrengths) {
         Map<String, List<Double>> outputMemberships = new HashMap<>();
 
+        int index = 0;
         for (Rule rule : rules) {
+            int ruleIndex = index++;
             if (!rule.isEnabled()) {
+                if (firingStrengths != null) {
+                    firingStrengths[ruleIndex] = 0.0;
+                }
                 continue;
             }
 
             double firingStrength = computeFiringStrength(rule, fuzzifiedInputs);
             firingStrength *= rule.getWeight();
+            if (firingStrengths != null) {
+                firingStrengths[ruleIndex] = firingStrength;
+            }
 
             if (firingStrength > 0) {
                 String outputSetName = rule.getConsequentFuzzySetName();
@@ -92,7 +108,19 @@ public class MamdaniInference implements InferenceEngine {
         return variableInputs.getOrDefault(cond.getFuzzySetName(), 0.0);
     }
 
+    public TNorm getAndOperator() {
+        return andOperator;
+    }
+
+    public SNorm getOrOperator() {
+        return orOperator;
+    }
+
     public ImplicationOperator getImplicationOperator() {
         return implicationOperator;
     }
+
+    public AggregationOperator getAggregationOperator() {
+        return aggregationOperator;
+    }
 }
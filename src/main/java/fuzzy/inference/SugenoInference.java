@@ -37,16 +37,32 @@ public class SugenoInference implements InferenceEngine {
     public Map<String, Double> infer(List<Rule> rules,
             Map<String, Map<String, Double>> fuzzifiedInputs,
             LinguisticVariable outputVariable) {
+        return infer(rules, fuzzifiedInputs, outputVariable, null);
+    }
+
+    @Override
+    public Map<String, Double> infer(List<Rule> rules,
+            Map<String, Map<String, Double>> fuzzifiedInputs,
+            LinguisticVariable outputVariable,
+            double[] firingStrengths) {
         double weightedSum = 0.0;
         double weightSum = 0.0;
 
+        int index = 0;
         for (Rule rule : rules) {
+            int ruleIndex = index++;
             if (!rule.isEnabled()) {
+                if (firingStrengths != null) {
+                    firingStrengths[ruleIndex] = 0.0;
+                }
                 continue;
             }
 
             double firingStrength = computeFiringStrength(rule, fuzzifiedInputs);
             firingStrength *= rule.getWeight();
+            if (firingStrengths != null) {
+                firingStrengths[ruleIndex] = firingStrength;
+            }
 
             if (firingStrength > 0) {
                 String outputSetName = rule.getConsequentFuzzySetName();
@@ -144,4 +160,20 @@ public class SugenoInference implements InferenceEngine {
         }
         return variableInputs.getOrDefault(cond.getFuzzySetName(), 0.0);
     }
+
+    public TNorm getAndOperator() {
+        return andOperator;
+    }
+
+    public SNorm getOrOperator() {
+        return orOperator;
+    }
+
+    public Map<String, Double> getConsequentValues() {
+        return Collections.unmodifiableMap(consequentValues);
+    }
+
+    public boolean isFirstOrder() {
+        return isFirstOrder;
+    }
 }
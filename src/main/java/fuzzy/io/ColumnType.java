@@ -0,0 +1,22 @@
+package fuzzy.io;
+
+/**
+ * Element type of the columns in a {@link ColumnarFile}.
+ */
+public enum ColumnType {
+    DOUBLE(8),
+    FLOAT(4);
+
+    private final int width;
+
+    ColumnType(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Gets the size of one value in bytes.
+     */
+    public int getWidth() {
+        return width;
+    }
+}
@@ -0,0 +1,320 @@
+package fuzzy.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary columnar file of crisp values, accessed through memory-mapped
+ * buffers so files larger than the heap can be read and written.
+ *
+ * Layout, all little-endian:
+ * <pre>
+ * int    magic "FZCF"
+ * short  format version (1)
+ * byte   column type (0 = double, 1 = float)
+ * byte   reserved
+ * int    column count
+ * int    reserved
+ * long   record count
+ * per column: double min domain, double max domain,
+ *             short name length, UTF-8 name bytes
+ * zero padding to a multiple of 8 bytes
+ * column 0 values, column 1 values, ...
+ * </pre>
+ */
+public final class ColumnarFile implements Closeable {
+    private static final int MAGIC = 0x46435A46; // "FZCF" read little-endian
+    private static final short VERSION = 1;
+    private static final int FIXED_HEADER = 24;
+    private static final long SEGMENT_BYTES = 1L << 30; // largest region mapped at once
+
+    private final FileChannel channel;
+    private final String[] names;
+    private final double[] minDomain;
+    private final double[] maxDomain;
+    private final ColumnType type;
+    private final long recordCount;
+    private final long segmentRecords;
+    private final DoubleBuffer[][] doubleSegments; // per column, null for float files
+    private final FloatBuffer[][] floatSegments; // per column, null for double files
+    private final MappedByteBuffer[] regions;
+
+    private ColumnarFile(FileChannel channel, FileChannel.MapMode mode, String[] names, double[] minDomain,
+            double[] maxDomain, ColumnType type, long recordCount, long dataOffset) throws IOException {
+        this.channel = channel;
+        this.names = names;
+        this.minDomain = minDomain;
+        this.maxDomain = maxDomain;
+        this.type = type;
+        this.recordCount = recordCount;
+        this.segmentRecords = SEGMENT_BYTES / type.getWidth();
+
+        int segments = (int) ((recordCount + segmentRecords - 1) / segmentRecords);
+        this.doubleSegments = type == ColumnType.DOUBLE ? new DoubleBuffer[names.length][segments] : null;
+        this.floatSegments = type == ColumnType.FLOAT ? new FloatBuffer[names.length][segments] : null;
+        this.regions = new MappedByteBuffer[names.length * segments];
+        long columnBytes = recordCount * type.getWidth();
+        for (int c = 0; c < names.length; c++) {
+            for (int s = 0; s < segments; s++) {
+                long first = s * segmentRecords;
+                long records = Math.min(segmentRecords, recordCount - first);
+                MappedByteBuffer region = channel.map(mode,
+                        dataOffset + c * columnBytes + first * type.getWidth(), records * type.getWidth());
+                region.order(ByteOrder.LITTLE_ENDIAN);
+                regions[c * segments + s] = region;
+                if (doubleSegments != null) {
+                    doubleSegments[c][s] = region.asDoubleBuffer();
+                } else {
+                    floatSegments[c][s] = region.asFloatBuffer();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates or truncates a file and maps it for writing. All values start
+     * at zero.
+     *
+     * @param names       column names
+     * @param minDomain   lower domain bound per column
+     * @param maxDomain   upper domain bound per column
+     * @param type        element type of every column
+     * @param recordCount number of values per column
+     */
+    public static ColumnarFile create(Path path, String[] names, double[] minDomain, double[] maxDomain,
+            ColumnType type, long recordCount) throws IOException {
+        if (names.length != minDomain.length || names.length != maxDomain.length) {
+            throw new IllegalArgumentException("Expected one domain per column");
+        }
+        if (recordCount < 0) {
+            throw new IllegalArgumentException("Record count cannot be negative");
+        }
+
+        byte[][] encodedNames = new byte[names.length][];
+        int headerSize = FIXED_HEADER;
+        for (int c = 0; c < names.length; c++) {
+            encodedNames[c] = names[c].getBytes(StandardCharsets.UTF_8);
+            if (encodedNames[c].length > 0xFFFF) {
+                throw new IllegalArgumentException("Column name too long: " + names[c]);
+            }
+            headerSize += 18 + encodedNames[c].length;
+        }
+        int dataOffset = (headerSize + 7) & ~7;
+
+        ByteBuffer header = ByteBuffer.allocate(dataOffset).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putShort(VERSION).put((byte) type.ordinal()).put((byte) 0);
+        header.putInt(names.length).putInt(0).putLong(recordCount);
+        for (int c = 0; c < names.length; c++) {
+            header.putDouble(minDomain[c]).putDouble(maxDomain[c]);
+            header.putShort((short) encodedNames[c].length).put(encodedNames[c]);
+        }
+        header.position(0);
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            return new ColumnarFile(channel, FileChannel.MapMode.READ_WRITE, names.clone(), minDomain.clone(),
+                    maxDomain.clone(), type, recordCount, dataOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing file and maps it for reading.
+     *
+     * @throws IOException if the file is not a valid columnar file
+     */
+    public static ColumnarFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer fixed = readFully(channel, 0, FIXED_HEADER);
+            if (fixed.getInt() != MAGIC) {
+                throw new IOException("Not a columnar file: " + path);
+            }
+            if (fixed.getShort() != VERSION) {
+                throw new IOException("Unsupported columnar file version: " + path);
+            }
+            int typeId = fixed.get();
+            if (typeId < 0 || typeId >= ColumnType.values().length) {
+                throw new IOException("Unknown column type " + typeId + ": " + path);
+            }
+            ColumnType type = ColumnType.values()[typeId];
+            fixed.get();
+            int columns = fixed.getInt();
+            fixed.getInt();
+            long recordCount = fixed.getLong();
+            if (columns < 0 || recordCount < 0) {
+                throw new IOException("Corrupt columnar header: " + path);
+            }
+
+            String[] names = new String[columns];
+            double[] minDomain = new double[columns];
+            double[] maxDomain = new double[columns];
+            long position = FIXED_HEADER;
+            for (int c = 0; c < columns; c++) {
+                ByteBuffer entry = readFully(channel, position, 18);
+                minDomain[c] = entry.getDouble();
+                maxDomain[c] = entry.getDouble();
+                int nameLength = entry.getShort() & 0xFFFF;
+                ByteBuffer name = readFully(channel, position + 18, nameLength);
+                names[c] = new String(name.array(), 0, nameLength, StandardCharsets.UTF_8);
+                position += 18 + nameLength;
+            }
+            long dataOffset = (position + 7) & ~7L;
+            if (channel.size() < dataOffset + columns * recordCount * type.getWidth()) {
+                throw new IOException("Truncated columnar file: " + path);
+            }
+            return new ColumnarFile(channel, FileChannel.MapMode.READ_ONLY, names, minDomain, maxDomain, type,
+                    recordCount, dataOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Copies values of one column into an array.
+     *
+     * @param column column index
+     * @param from   first record to read
+     * @param dst    receives the values
+     * @param offset first position to write in dst
+     * @param length number of values to read
+     */
+    public void read(int column, long from, double[] dst, int offset, int length) {
+        checkRange(from, length);
+        while (length > 0) {
+            int segment = (int) (from / segmentRecords);
+            int index = (int) (from % segmentRecords);
+            int chunk = (int) Math.min(length, segmentRecords - index);
+            if (doubleSegments != null) {
+                DoubleBuffer values = doubleSegments[column][segment];
+                for (int i = 0; i < chunk; i++) {
+                    dst[offset + i] = values.get(index + i);
+                }
+            } else {
+                FloatBuffer values = floatSegments[column][segment];
+                for (int i = 0; i < chunk; i++) {
+                    dst[offset + i] = values.get(index + i);
+                }
+            }
+            from += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Copies values from an array into one column. Float files round each
+     * value to float.
+     *
+     * @param column column index
+     * @param from   first record to write
+     * @param src    values to write
+     * @param offset first position to read in src
+     * @param length number of values to write
+     */
+    public void write(int column, long from, double[] src, int offset, int length) {
+        checkRange(from, length);
+        while (length > 0) {
+            int segment = (int) (from / segmentRecords);
+            int index = (int) (from % segmentRecords);
+            int chunk = (int) Math.min(length, segmentRecords - index);
+            if (doubleSegments != null) {
+                DoubleBuffer values = doubleSegments[column][segment];
+                for (int i = 0; i < chunk; i++) {
+                    values.put(index + i, src[offset + i]);
+                }
+            } else {
+                FloatBuffer values = floatSegments[column][segment];
+                for (int i = 0; i < chunk; i++) {
+                    values.put(index + i, (float) src[offset + i]);
+                }
+            }
+            from += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    private void checkRange(long from, int length) {
+        if (from < 0 || length < 0 || from + length > recordCount) {
+            throw new IndexOutOfBoundsException("Invalid record range [" + from + ", " + (from + length) + ")");
+        }
+    }
+
+    /**
+     * Gets the index of a column, or -1 if there is no column with that name.
+     */
+    public int indexOfColumn(String name) {
+        for (int c = 0; c < names.length; c++) {
+            if (names[c].equals(name)) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    public int getColumnCount() {
+        return names.length;
+    }
+
+    public String getColumnName(int column) {
+        return names[column];
+    }
+
+    public double getMinDomain(int column) {
+        return minDomain[column];
+    }
+
+    public double getMaxDomain(int column) {
+        return maxDomain[column];
+    }
+
+    public ColumnType getType() {
+        return type;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes changes made through {@link #write} to the storage device.
+     */
+    public void force() {
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,84 @@
+package fuzzy.io;
+
+import fuzzy.system.CompiledSystem;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Scores a {@link ColumnarFile} with a compiled system into a new columnar
+ * file with one output column.
+ *
+ * Input columns are matched to the plan's input variables by name. Records
+ * are moved between the mapped files and the plan in blocks, so only one
+ * block is ever held on the heap and files larger than the heap can be
+ * scored.
+ */
+public class ColumnarScorer {
+    private static final int DEFAULT_BLOCK_SIZE = 8192;
+
+    private final CompiledSystem plan;
+    private final String outputColumn;
+    private final int blockSize;
+
+    public ColumnarScorer(CompiledSystem plan, String outputColumn) {
+        this(plan, outputColumn, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param plan         compiled system to evaluate
+     * @param outputColumn name of the output column
+     * @param blockSize    records moved and scored together
+     */
+    public ColumnarScorer(CompiledSystem plan, String outputColumn, int blockSize) {
+        if (plan == null || outputColumn == null) {
+            throw new IllegalArgumentException("Plan and output column cannot be null");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.plan = plan;
+        this.outputColumn = outputColumn;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Scores every record of the input file. The output file has the same
+     * column type as the input and the output variable's domain.
+     *
+     * @return number of records scored
+     * @throws IllegalArgumentException if the input lacks a column for an
+     *                                  input variable
+     */
+    public long score(Path input, Path output) throws IOException {
+        try (ColumnarFile in = ColumnarFile.open(input)) {
+            int[] columnOf = new int[plan.getInputCount()];
+            String[] names = plan.getInputNames();
+            for (int v = 0; v < columnOf.length; v++) {
+                columnOf[v] = in.indexOfColumn(names[v]);
+                if (columnOf[v] < 0) {
+                    throw new IllegalArgumentException("Missing column for input: " + names[v]);
+                }
+            }
+
+            long records = in.getRecordCount();
+            try (ColumnarFile out = ColumnarFile.create(output, new String[] { outputColumn },
+                    new double[] { plan.getOutputMinDomain() }, new double[] { plan.getOutputMaxDomain() },
+                    in.getType(), records)) {
+                int block = (int) Math.min(blockSize, Math.max(records, 1));
+                double[][] columns = new double[columnOf.length][block];
+                double[] scores = new double[block];
+                for (long from = 0; from < records; from += block) {
+                    int n = (int) Math.min(block, records - from);
+                    for (int v = 0; v < columnOf.length; v++) {
+                        in.read(columnOf[v], from, columns[v], 0, n);
+                    }
+                    plan.evaluateBatch(columns, 0, n, scores);
+                    out.write(0, from, scores, 0, n);
+                }
+                out.force();
+            }
+            return records;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package fuzzy.io;
+
+import fuzzy.system.CompiledSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Scores CSV records in a stream with constant memory.
+ *
+ * The first line is a header. Columns are matched to the plan's input
+ * variables by name; other columns are passed through unchanged. Records are
+ * collected in micro-batches, scored with
+ * {@link CompiledSystem#evaluateBatch(double[][], int, int, double[])}, and
+ * written out immediately as the original line followed by the score column.
+ * Memory use depends on the batch size and line length, not the file size.
+ *
+ * Fields may be enclosed in double quotes, but quoted fields must not contain
+ * line breaks. Empty input fields are read as NaN, which the plan maps to the
+ * centre of the variable's domain; a record with too few fields for an input
+ * column is rejected. Trailing pass-through columns may be missing.
+ */
+public class CsvScorer {
+    private static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CompiledSystem plan;
+    private final String outputColumn;
+    private final int batchSize;
+
+    public CsvScorer(CompiledSystem plan) {
+        this(plan, "Score", DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param plan         compiled system to evaluate
+     * @param outputColumn header of the appended score column
+     * @param batchSize    records scored together
+     */
+    public CsvScorer(CompiledSystem plan, String outputColumn, int batchSize) {
+        if (plan == null || outputColumn == null) {
+            throw new IllegalArgumentException("Plan and output column cannot be null");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.plan = plan;
+        this.outputColumn = outputColumn;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Scores a CSV file into a new or truncated output file.
+     *
+     * @return number of records scored
+     */
+    public long score(Path input, Path output) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return score(in, out);
+        }
+    }
+
+    /**
+     * Scores CSV read from one channel into another. Neither channel is
+     * closed.
+     *
+     * @return number of records scored
+     * @throws IllegalArgumentException if the header lacks an input variable, or
+     *                                  a record lacks an input field or has one
+     *                                  that is not a number
+     */
+    public long score(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        LineReader reader = new LineReader(input);
+        LineWriter writer = new LineWriter(output);
+        if (!reader.readLine()) {
+            throw new IllegalArgumentException("Missing CSV header");
+        }
+        int[] fieldInputs = mapHeader(reader);
+        writer.write(reader.line, 0, reader.length);
+        writer.write((byte) ',');
+        writer.write(outputColumn.getBytes(StandardCharsets.UTF_8));
+        writer.write((byte) '\n');
+
+        Batch batch = new Batch(plan.getInputNames(), batchSize);
+        long lineNumber = 1;
+        long records = 0;
+        while (reader.readLine()) {
+            lineNumber++;
+            if (reader.length == 0) {
+                continue;
+            }
+            batch.add(reader, fieldInputs, lineNumber);
+            if (batch.size == batchSize) {
+                records += flush(batch, writer);
+            }
+        }
+        records += flush(batch, writer);
+        writer.flush();
+        return records;
+    }
+
+    /**
+     * Maps header fields to input variable indices, or -1 for pass-through
+     * columns.
+     */
+    private int[] mapHeader(LineReader reader) {
+        int fields = countFields(reader.line, reader.length);
+        int[] fieldInputs = new int[fields];
+        boolean[] found = new boolean[plan.getInputCount()];
+        int start = 0;
+        for (int f = 0; f < fields; f++) {
+            int end = fieldEnd(reader.line, start, reader.length);
+            String name = fieldText(reader.line, start, end).trim();
+            int input = plan.indexOfInput(name);
+            if (input >= 0 && found[input]) {
+                throw new IllegalArgumentException("Duplicate column for input: " + name);
+            }
+            fieldInputs[f] = input;
+            if (input >= 0) {
+                found[input] = true;
+            }
+            start = end + 1;
+        }
+        String[] names = plan.getInputNames();
+        for (int v = 0; v < found.length; v++) {
+            if (!found[v]) {
+                throw new IllegalArgumentException("Missing column for input: " + names[v]);
+            }
+        }
+        return fieldInputs;
+    }
+
+    private long flush(Batch batch, LineWriter writer) throws IOException {
+        int n = batch.size;
+        if (n == 0) {
+            return 0;
+        }
+        plan.evaluateBatch(batch.columns, 0, n, batch.scores);
+        for (int i = 0; i < n; i++) {
+            int start = i == 0 ? 0 : batch.lineEnd[i - 1];
+            writer.write(batch.lines, start, batch.lineEnd[i] - start);
+            writer.write((byte) ',');
+            writer.write(Double.toString(batch.scores[i]).getBytes(StandardCharsets.US_ASCII));
+            writer.write((byte) '\n');
+        }
+        batch.size = 0;
+        return n;
+    }
+
+    private static int countFields(byte[] line, int length) {
+        int fields = 1;
+        int start = 0;
+        while ((start = fieldEnd(line, start, length)) < length) {
+            fields++;
+            start++;
+        }
+        return fields;
+    }
+
+    /**
+     * Finds the comma that ends the field starting at start, or length.
+     */
+    private static int fieldEnd(byte[] line, int start, int length) {
+        boolean quoted = false;
+        for (int i = start; i < length; i++) {
+            if (line[i] == '"') {
+                quoted = !quoted;
+            } else if (line[i] == ',' && !quoted) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static String fieldText(byte[] line, int start, int end) {
+        String text = new String(line, start, end - start, StandardCharsets.UTF_8).trim();
+        if (text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') {
+            text = text.substring(1, text.length() - 1).replace("\"\"", "\"");
+        }
+        return text;
+    }
+
+    /**
+     * Input columns and raw lines of the records waiting to be scored.
+     */
+    private static final class Batch {
+        final String[] inputNames;
+        final double[][] columns;
+        final double[] scores;
+        final int[] lineEnd; // per record, end offset in lines
+        byte[] lines = new byte[BUFFER_SIZE];
+        int size;
+
+        Batch(String[] inputNames, int capacity) {
+            this.inputNames = inputNames;
+            this.columns = new double[inputNames.length][capacity];
+            this.scores = new double[capacity];
+            this.lineEnd = new int[capacity];
+        }
+
+        void add(LineReader reader, int[] fieldInputs, long lineNumber) {
+            int start = 0;
+            for (int f = 0; f < fieldInputs.length; f++) {
+                if (start > reader.length) {
+                    if (fieldInputs[f] >= 0) {
+                        throw new IllegalArgumentException("Line " + lineNumber + ": missing field for input "
+                                + inputNames[fieldInputs[f]]);
+                    }
+                    continue;
+                }
+                int end = fieldEnd(reader.line, start, reader.length);
+                if (fieldInputs[f] >= 0) {
+                    columns[fieldInputs[f]][size] = parse(reader.line, start, end, lineNumber);
+                }
+                start = end + 1;
+            }
+
+            int offset = size == 0 ? 0 : lineEnd[size - 1];
+            if (offset + reader.length > lines.length) {
+                lines = Arrays.copyOf(lines, Math.max(lines.length * 2, offset + reader.length));
+            }
+            System.arraycopy(reader.line, 0, lines, offset, reader.length);
+            lineEnd[size] = offset + reader.length;
+            size++;
+        }
+
+        private static double parse(byte[] line, int start, int end, long lineNumber) {
+            String text = fieldText(line, start, end);
+            if (text.isEmpty()) {
+                return Double.NaN;
+            }
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": invalid number '" + text + "'");
+            }
+        }
+    }
+
+    /**
+     * Splits a channel into lines without the line terminator.
+     */
+    private static final class LineReader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private boolean endOfInput;
+        byte[] line = new byte[256];
+        int length;
+
+        LineReader(ReadableByteChannel channel) {
+            this.channel = channel;
+            buffer.flip();
+        }
+
+        /**
+         * @return false when the input is exhausted
+         */
+        boolean readLine() throws IOException {
+            length = 0;
+            boolean any = false;
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    if (endOfInput || !fill()) {
+                        break;
+                    }
+                }
+                any = true;
+                byte b = buffer.get();
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return any;
+        }
+
+        private boolean fill() throws IOException {
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            buffer.flip();
+            if (read < 0) {
+                endOfInput = true;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Buffers bytes and writes them to a channel in large blocks.
+     */
+    private static final class LineWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        LineWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void write(byte b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(b);
+        }
+
+        void write(byte[] bytes) throws IOException {
+            write(bytes, 0, bytes.length);
+        }
+
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package fuzzy.membership;
+
+/**
+ * Array kernels for membership evaluation and centroid sums, used by batch
+ * fuzzification and output-domain sampling.
+ *
+ * {@link #get()} returns the best available implementation: an implementation
+ * registered through {@link java.util.ServiceLoader}, such as the Vector API
+ * kernels of the optional {@code fuzzy-logic-vector} module, or
+ * {@link ScalarKernels} when none can be loaded. {@link #exact()} returns a
+ * view of it whose results always equal the scalar kernels.
+ */
+public interface ArrayKernels {
+    /**
+     * Evaluates a membership function at many points.
+     *
+     * @param function  membership function
+     * @param xs        crisp values
+     * @param offset    first position to read in xs
+     * @param length    number of values
+     * @param out       receives the membership degrees
+     * @param outOffset first position to write in out
+     */
+    void calculate(MembershipFunction function, double[] xs, int offset, int length, double[] out, int outOffset);
+
+    /**
+     * Evaluates a membership function at minDomain + i * step for
+     * i = 0..count - 1.
+     *
+     * @param out receives count membership degrees
+     */
+    void sample(MembershipFunction function, double minDomain, double step, int count, double[] out);
+
+    /**
+     * Computes the centroid sums of sampled memberships at
+     * x_i = minDomain + i * step for i = 0..count - 1.
+     *
+     * @param sums receives the numerator (sum of x_i * mu_i) at index 0 and
+     *             the denominator (sum of mu_i) at index 1
+     */
+    void centroidSums(double[] memberships, int count, double minDomain, double step, double[] sums);
+
+    /**
+     * Checks whether {@link #calculate} and {@link #sample} return exactly
+     * {@link MembershipFunction#calculate(double)} for a function.
+     */
+    default boolean isExact(MembershipFunction function) {
+        return false;
+    }
+
+    /**
+     * Gets the shared kernel implementation.
+     */
+    static ArrayKernels get() {
+        return KernelLoader.KERNELS;
+    }
+
+    /**
+     * Gets kernels whose results equal {@link ScalarKernels}: the shared
+     * implementation for functions it evaluates exactly, and the scalar loops
+     * for other functions and for centroid sums.
+     */
+    static ArrayKernels exact() {
+        return KernelLoader.EXACT_KERNELS;
+    }
+}
@@ -0,0 +1,40 @@
+package fuzzy.membership;
+
+/**
+ * {@link ArrayKernels} that delegate to another implementation only for
+ * functions it evaluates exactly, so results always equal
+ * {@link ScalarKernels}. Centroid sums use the scalar summation order.
+ */
+final class ExactKernels implements ArrayKernels {
+    private final ArrayKernels kernels;
+    private final ScalarKernels scalar = new ScalarKernels();
+
+    ExactKernels(ArrayKernels kernels) {
+        this.kernels = kernels;
+    }
+
+    @Override
+    public boolean isExact(MembershipFunction function) {
+        return true;
+    }
+
+    @Override
+    public void calculate(MembershipFunction function, double[] xs, int offset, int length, double[] out,
+            int outOffset) {
+        select(function).calculate(function, xs, offset, length, out, outOffset);
+    }
+
+    @Override
+    public void sample(MembershipFunction function, double minDomain, double step, int count, double[] out) {
+        select(function).sample(function, minDomain, step, count, out);
+    }
+
+    @Override
+    public void centroidSums(double[] memberships, int count, double minDomain, double step, double[] sums) {
+        scalar.centroidSums(memberships, count, minDomain, step, sums);
+    }
+
+    private ArrayKernels select(MembershipFunction function) {
+        return kernels.isExact(function) ? kernels : scalar;
+    }
+}
@@ -0,0 +1,33 @@
+package fuzzy.membership;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Loads the {@link ArrayKernels} implementation once. A provider that cannot
+ * be linked, for example Vector API kernels on a JVM started without
+ * {@code --add-modules jdk.incubator.vector}, is skipped.
+ */
+final class KernelLoader {
+    static final ArrayKernels KERNELS = load();
+    static final ArrayKernels EXACT_KERNELS = KERNELS instanceof ScalarKernels ? KERNELS : new ExactKernels(KERNELS);
+
+    private KernelLoader() {
+    }
+
+    private static ArrayKernels load() {
+        Iterator<ArrayKernels> providers = ServiceLoader.load(ArrayKernels.class).iterator();
+        while (true) {
+            try {
+                if (!providers.hasNext()) {
+                    break;
+                }
+                return providers.next();
+            } catch (ServiceConfigurationError | LinkageError e) {
+                // try the next provider
+            }
+        }
+        return new ScalarKernels();
+    }
+}
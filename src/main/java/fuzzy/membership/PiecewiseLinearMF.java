@@ -0,0 +1,16 @@
+package fuzzy.membership;
+
+/**
+ * Membership function made of straight line segments.
+ * Between two consecutive breakpoints the function is linear, and it is zero
+ * at and outside the bounds returned by {@link #getDomain()}.
+ */
+public interface PiecewiseLinearMF extends MembershipFunction {
+    /**
+     * Gets the x coordinates where the slope changes, in ascending order.
+     * The first and last breakpoints are the domain bounds.
+     * 
+     * @return ascending breakpoint coordinates
+     */
+    double[] getBreakpoints();
+}
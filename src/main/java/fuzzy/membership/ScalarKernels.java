@@ -0,0 +1,41 @@
+package fuzzy.membership;
+
+/**
+ * Plain loop implementation of {@link ArrayKernels}. Results equal calling
+ * {@link MembershipFunction#calculate(double)} point by point and summing in
+ * index order.
+ */
+public final class ScalarKernels implements ArrayKernels {
+    @Override
+    public boolean isExact(MembershipFunction function) {
+        return true;
+    }
+
+    @Override
+    public void calculate(MembershipFunction function, double[] xs, int offset, int length, double[] out,
+            int outOffset) {
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = function.calculate(xs[offset + i]);
+        }
+    }
+
+    @Override
+    public void sample(MembershipFunction function, double minDomain, double step, int count, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = function.calculate(minDomain + i * step);
+        }
+    }
+
+    @Override
+    public void centroidSums(double[] memberships, int count, double minDomain, double step, double[] sums) {
+        double numerator = 0.0;
+        double denominator = 0.0;
+        for (int i = 0; i < count; i++) {
+            double mu = memberships[i];
+            numerator += (minDomain + i * step) * mu;
+            denominator += mu;
+        }
+        sums[0] = numerator;
+        sums[1] = denominator;
+    }
+}
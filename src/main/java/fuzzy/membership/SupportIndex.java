@@ -0,0 +1,121 @@
+package fuzzy.membership;
+
+import java.util.Arrays;
+
+/**
+ * Finds the membership functions of a partition that can be non-zero at a
+ * point by binary search over their support bounds.
+ *
+ * A {@link PiecewiseLinearMF} is zero at and outside its domain bounds, so its
+ * support is the open interval given by {@link MembershipFunction#getDomain()}.
+ * Other functions, such as {@link GaussianMF}, never reach zero and are always
+ * reported as candidates.
+ */
+public final class SupportIndex {
+    /**
+     * Smallest number of sets for which an index pays off; smaller partitions
+     * are cheaper to scan linearly.
+     */
+    public static final int MIN_INDEXED_SETS = 8;
+
+    private final double[] bounds; // distinct support bounds, ascending
+    private final int[] pieceStart; // per piece, into pieceSets; length = pieces + 1
+    private final int[] pieceSets;
+    private final int[] unboundedSets;
+
+    /**
+     * @param functions membership functions of one variable; candidates are
+     *                  reported as indices into this array
+     */
+    public SupportIndex(MembershipFunction[] functions) {
+        int n = functions.length;
+        double[] lower = new double[n];
+        double[] upper = new double[n];
+        boolean[] bounded = new boolean[n];
+        double[] allBounds = new double[2 * n];
+        int boundCount = 0;
+        int unbounded = 0;
+        for (int i = 0; i < n; i++) {
+            if (functions[i] instanceof PiecewiseLinearMF) {
+                double[] domain = functions[i].getDomain();
+                lower[i] = domain[0];
+                upper[i] = domain[1];
+                bounded[i] = true;
+                allBounds[boundCount++] = domain[0];
+                allBounds[boundCount++] = domain[1];
+            } else {
+                unbounded++;
+            }
+        }
+        Arrays.sort(allBounds, 0, boundCount);
+        int distinct = 0;
+        for (int i = 0; i < boundCount; i++) {
+            if (distinct == 0 || allBounds[i] != allBounds[distinct - 1]) {
+                allBounds[distinct++] = allBounds[i];
+            }
+        }
+        this.bounds = Arrays.copyOf(allBounds, distinct);
+
+        // Piece 2k is the open gap below bounds[k], piece 2k + 1 is bounds[k] itself
+        int pieces = 2 * distinct + 1;
+        this.pieceStart = new int[pieces + 1];
+        for (int p = 0; p < pieces; p++) {
+            pieceStart[p + 1] = pieceStart[p];
+            for (int i = 0; i < n; i++) {
+                if (bounded[i] && covers(p, lower[i], upper[i])) {
+                    pieceStart[p + 1]++;
+                }
+            }
+        }
+        this.pieceSets = new int[pieceStart[pieces]];
+        int filled = 0;
+        for (int p = 0; p < pieces; p++) {
+            for (int i = 0; i < n; i++) {
+                if (bounded[i] && covers(p, lower[i], upper[i])) {
+                    pieceSets[filled++] = i;
+                }
+            }
+        }
+
+        this.unboundedSets = new int[unbounded];
+        unbounded = 0;
+        for (int i = 0; i < n; i++) {
+            if (!bounded[i]) {
+                unboundedSets[unbounded++] = i;
+            }
+        }
+    }
+
+    private boolean covers(int piece, double lower, double upper) {
+        if (piece % 2 == 1) {
+            double x = bounds[piece / 2];
+            return lower < x && x < upper;
+        }
+        int k = piece / 2;
+        double from = k == 0 ? Double.NEGATIVE_INFINITY : bounds[k - 1];
+        double to = k == bounds.length ? Double.POSITIVE_INFINITY : bounds[k];
+        return lower <= from && to <= upper;
+    }
+
+    /**
+     * Writes the indices of the functions that may be non-zero at x.
+     * Functions not reported are exactly zero at x.
+     *
+     * @param x      crisp value
+     * @param out    receives candidate indices
+     * @param offset first position to write in out
+     * @return number of indices written
+     */
+    public int findCandidates(double x, int[] out, int offset) {
+        int found = Arrays.binarySearch(bounds, x);
+        int piece = found >= 0 ? 2 * found + 1 : -2 * (found + 1);
+        int count = 0;
+        for (int k = pieceStart[piece]; k < pieceStart[piece + 1]; k++) {
+            out[offset + count++] = pieceSets[k];
+        }
+        for (int set : unboundedSets) {
+            out[offset + count++] = set;
+        }
+        return count;
+    }
+}
@@ -5,7 +5,7 @@ package fuzzy.membership;
  * (left top),
  * c (right top), d (right base). The function is 1.0 in the interval [b, c].
  */
-public class TrapezoidalMF implements MembershipFunction {
+public class TrapezoidalMF implements PiecewiseLinearMF {
     private final double a; // left base point
     private final double b; // left top point
     private final double c; // right top point
@@ -41,6 +41,11 @@ public class TrapezoidalMF implements MembershipFunction {
         return new double[] { a, d };
     }
 
+    @Override
+    public double[] getBreakpoints() {
+        return new double[] { a, b, c, d };
+    }
+
     public double getA() {
         return a;
     }
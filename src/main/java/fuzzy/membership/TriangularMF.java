@@ -5,7 +5,7 @@ package fuzzy.membership;
  * (right).
  * The function reaches its maximum (1.0) at point b.
  */
-public class TriangularMF implements MembershipFunction {
+public class TriangularMF implements PiecewiseLinearMF {
     private final double a; // left base point
     private final double b; // peak point
     private final double c; // right base point
@@ -39,6 +39,11 @@ public class TriangularMF implements MembershipFunction {
         return new double[] { a, c };
     }
 
+    @Override
+    public double[] getBreakpoints() {
+        return new double[] { a, b, c };
+    }
+
     public double getA() {
         return a;
     }
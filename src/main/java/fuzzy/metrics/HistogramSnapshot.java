@@ -0,0 +1,55 @@
+package fuzzy.metrics;
+
+/**
+ * Point-in-time summary of a {@link LatencyHistogram}. Values are in
+ * nanoseconds; percentiles are the highest value of their bucket.
+ */
+public final class HistogramSnapshot {
+    static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+
+    private final long count;
+    private final double mean;
+    private final long max;
+    private final long[] percentiles;
+
+    HistogramSnapshot(long count, double mean, long max, long[] percentiles) {
+        this.count = count;
+        this.mean = mean;
+        this.max = max;
+        this.percentiles = percentiles;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanNanos() {
+        return mean;
+    }
+
+    public long getMaxNanos() {
+        return max;
+    }
+
+    public long getP50Nanos() {
+        return percentiles[0];
+    }
+
+    public long getP90Nanos() {
+        return percentiles[1];
+    }
+
+    public long getP99Nanos() {
+        return percentiles[2];
+    }
+
+    public long getP999Nanos() {
+        return percentiles[3];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.0fns p50=%dns p90=%dns p99=%dns p99.9=%dns max=%dns",
+                count, mean, getP50Nanos(), getP90Nanos(), getP99Nanos(), getP999Nanos(), max);
+    }
+}
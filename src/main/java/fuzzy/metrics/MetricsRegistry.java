@@ -0,0 +1,217 @@
+package fuzzy.metrics;
+
+import fuzzy.rules.Rule;
+import fuzzy.rules.RuleBaseSnapshot;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects evaluation metrics of a fuzzy logic system: per-stage latency
+ * histograms, evaluation and zero-firing counters, and firing counts per
+ * rule. All recording is lock-free.
+ *
+ * A system records metrics only while a registry is attached, so a system
+ * without one pays nothing beyond a null check.
+ *
+ * Firing counts are kept per position in the enabled rules of the rule base
+ * snapshot last evaluated. When the rule base publishes a new snapshot the
+ * counts are rebuilt for it: rules carried over unchanged keep their counts
+ * and replaced or removed rules are dropped. Firings recorded concurrently
+ * with that switch may be lost. A registry is meant for one rule base.
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+    private final LatencyHistogram fuzzifyLatency = new LatencyHistogram();
+    private final LatencyHistogram inferLatency = new LatencyHistogram();
+    private final LatencyHistogram defuzzifyLatency = new LatencyHistogram();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder zeroFiring = new LongAdder();
+    private final AtomicReference<RuleCounts> ruleFirings = new AtomicReference<>(RuleCounts.EMPTY);
+
+    /**
+     * Records one evaluation.
+     *
+     * @param fuzzifyNanos    time spent fuzzifying
+     * @param inferNanos      time spent in inference
+     * @param defuzzifyNanos  time spent defuzzifying
+     * @param rules           snapshot whose enabled rules were passed to the
+     *                        inference engine
+     * @param firingStrengths firing strength per enabled rule, NaN if unknown
+     */
+    public void recordEvaluation(long fuzzifyNanos, long inferNanos, long defuzzifyNanos,
+            RuleBaseSnapshot rules, double[] firingStrengths) {
+        fuzzifyLatency.record(fuzzifyNanos);
+        inferLatency.record(inferNanos);
+        defuzzifyLatency.record(defuzzifyNanos);
+        evaluations.increment();
+
+        boolean fired = false;
+        boolean known = true;
+        LongAdder[] counts = null;
+        int size = rules.getEnabledRules().size();
+        for (int i = 0; i < size; i++) {
+            double strength = firingStrengths[i];
+            if (strength > 0) {
+                fired = true;
+                if (counts == null) {
+                    counts = countsFor(rules);
+                }
+                counts[i].increment();
+            } else if (Double.isNaN(strength)) {
+                known = false;
+            }
+        }
+        if (!fired && known) {
+            zeroFiring.increment();
+        }
+    }
+
+    /**
+     * Gets the firing counters for a snapshot, rebuilding them if the last
+     * recorded evaluation used another snapshot.
+     */
+    private LongAdder[] countsFor(RuleBaseSnapshot rules) {
+        while (true) {
+            RuleCounts current = ruleFirings.get();
+            if (current.rules == rules) {
+                return current.counts;
+            }
+            RuleCounts next = current.rebuild(rules);
+            if (ruleFirings.compareAndSet(current, next)) {
+                return next.counts;
+            }
+        }
+    }
+
+    /**
+     * Copies the current metrics.
+     */
+    public MetricsSnapshot snapshot() {
+        Map<Rule, Long> firings = new LinkedHashMap<>();
+        RuleCounts current = ruleFirings.get();
+        for (int i = 0; i < current.counts.length; i++) {
+            long count = current.counts[i].sum();
+            if (count > 0) {
+                firings.merge(current.enabledRules.get(i), count, Long::sum);
+            }
+        }
+        return new MetricsSnapshot(evaluations.sum(), zeroFiring.sum(), fuzzifyLatency.snapshot(),
+                inferLatency.snapshot(), defuzzifyLatency.snapshot(), firings);
+    }
+
+    /**
+     * Registers this registry with the platform MBean server under
+     * {@code fuzzy:type=Metrics,name=<name>}.
+     *
+     * @return the registered object name
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        ObjectName objectName = new ObjectName("fuzzy:type=Metrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Removes a registration made by {@link #registerMBean(String)}.
+     */
+    public void unregisterMBean(ObjectName objectName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    @Override
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    @Override
+    public long getZeroFiringCount() {
+        return zeroFiring.sum();
+    }
+
+    @Override
+    public HistogramSnapshot getFuzzifyLatency() {
+        return fuzzifyLatency.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getInferLatency() {
+        return inferLatency.snapshot();
+    }
+
+    @Override
+    public HistogramSnapshot getDefuzzifyLatency() {
+        return defuzzifyLatency.snapshot();
+    }
+
+    @Override
+    public Map<String, Long> getRuleFirings() {
+        Map<String, Long> firings = new TreeMap<>();
+        for (Map.Entry<Rule, Long> entry : snapshot().getRuleFirings().entrySet()) {
+            firings.merge(entry.getKey().toString(), entry.getValue(), Long::sum);
+        }
+        return firings;
+    }
+
+    /**
+     * Clears all metrics.
+     */
+    @Override
+    public void reset() {
+        fuzzifyLatency.reset();
+        inferLatency.reset();
+        defuzzifyLatency.reset();
+        evaluations.reset();
+        zeroFiring.reset();
+        ruleFirings.set(RuleCounts.EMPTY);
+    }
+
+    /**
+     * Firing counters for the enabled rules of one rule base snapshot.
+     */
+    private static final class RuleCounts {
+        static final RuleCounts EMPTY = new RuleCounts(null, List.of(), new LongAdder[0]);
+
+        final RuleBaseSnapshot rules;
+        final List<Rule> enabledRules;
+        final LongAdder[] counts; // per enabled rule
+
+        RuleCounts(RuleBaseSnapshot rules, List<Rule> enabledRules, LongAdder[] counts) {
+            this.rules = rules;
+            this.enabledRules = enabledRules;
+            this.counts = counts;
+        }
+
+        /**
+         * Creates counters for another snapshot, carrying over the counts of
+         * rules it shares with this one.
+         */
+        RuleCounts rebuild(RuleBaseSnapshot next) {
+            Map<Rule, LongAdder> previous = new IdentityHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                previous.putIfAbsent(enabledRules.get(i), counts[i]);
+            }
+            List<Rule> enabled = next.getEnabledRules();
+            LongAdder[] nextCounts = new LongAdder[enabled.size()];
+            for (int i = 0; i < nextCounts.length; i++) {
+                nextCounts[i] = new LongAdder();
+                LongAdder count = previous.remove(enabled.get(i));
+                if (count != null) {
+                    nextCounts[i].add(count.sum());
+                }
+            }
+            return new RuleCounts(next, enabled, nextCounts);
+        }
+    }
+}
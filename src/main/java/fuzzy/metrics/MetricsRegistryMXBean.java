@@ -0,0 +1,25 @@
+package fuzzy.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link MetricsRegistry}.
+ */
+public interface MetricsRegistryMXBean {
+    long getEvaluationCount();
+
+    long getZeroFiringCount();
+
+    HistogramSnapshot getFuzzifyLatency();
+
+    HistogramSnapshot getInferLatency();
+
+    HistogramSnapshot getDefuzzifyLatency();
+
+    /**
+     * Gets firing counts keyed by rule text. Identical rules are summed.
+     */
+    Map<String, Long> getRuleFirings();
+
+    void reset();
+}
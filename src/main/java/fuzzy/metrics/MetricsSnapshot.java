@@ -0,0 +1,60 @@
+package fuzzy.metrics;
+
+import fuzzy.rules.Rule;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Point-in-time copy of the metrics in a {@link MetricsRegistry}.
+ */
+public final class MetricsSnapshot {
+    private final long evaluationCount;
+    private final long zeroFiringCount;
+    private final HistogramSnapshot fuzzifyLatency;
+    private final HistogramSnapshot inferLatency;
+    private final HistogramSnapshot defuzzifyLatency;
+    private final Map<Rule, Long> ruleFirings;
+
+    MetricsSnapshot(long evaluationCount, long zeroFiringCount, HistogramSnapshot fuzzifyLatency,
+            HistogramSnapshot inferLatency, HistogramSnapshot defuzzifyLatency, Map<Rule, Long> ruleFirings) {
+        this.evaluationCount = evaluationCount;
+        this.zeroFiringCount = zeroFiringCount;
+        this.fuzzifyLatency = fuzzifyLatency;
+        this.inferLatency = inferLatency;
+        this.defuzzifyLatency = defuzzifyLatency;
+        this.ruleFirings = Collections.unmodifiableMap(ruleFirings);
+    }
+
+    public long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    /**
+     * Gets the number of evaluations in which no rule fired, so the output
+     * fell back to the defuzzifier's default.
+     */
+    public long getZeroFiringCount() {
+        return zeroFiringCount;
+    }
+
+    public HistogramSnapshot getFuzzifyLatency() {
+        return fuzzifyLatency;
+    }
+
+    public HistogramSnapshot getInferLatency() {
+        return inferLatency;
+    }
+
+    public HistogramSnapshot getDefuzzifyLatency() {
+        return defuzzifyLatency;
+    }
+
+    /**
+     * Gets how many evaluations each enabled rule of the latest evaluated
+     * rule base snapshot fired in. Rules that never fired are absent.
+     */
+    public Map<Rule, Long> getRuleFirings() {
+        return ruleFirings;
+    }
+}
@@ -0,0 +1,87 @@
+package fuzzy.metrics;
+
+import fuzzy.rules.Rule;
+
+/**
+ * Firing statistics of one rule collected by a {@link RuleProfiler}.
+ */
+public final class RuleProfile {
+    private final Rule rule;
+    private final long fireCount;
+    private final long winCount;
+    private final double strengthSum;
+    private final double maxStrength;
+    private final long[] strengthHistogram;
+
+    RuleProfile(Rule rule, long fireCount, long winCount, double strengthSum, double maxStrength,
+            long[] strengthHistogram) {
+        this.rule = rule;
+        this.fireCount = fireCount;
+        this.winCount = winCount;
+        this.strengthSum = strengthSum;
+        this.maxStrength = maxStrength;
+        this.strengthHistogram = strengthHistogram;
+    }
+
+    public Rule getRule() {
+        return rule;
+    }
+
+    /**
+     * Gets the number of evaluations in which the rule fired with a positive
+     * strength.
+     */
+    public long getFireCount() {
+        return fireCount;
+    }
+
+    /**
+     * Gets the number of evaluations in which the rule determined the
+     * output. Under max aggregation this is when it was the first rule with
+     * the largest strength for its consequent set; otherwise every firing
+     * counts.
+     */
+    public long getWinCount() {
+        return winCount;
+    }
+
+    /**
+     * Gets the mean strength over the evaluations in which the rule fired, or
+     * 0 if it never fired.
+     */
+    public double getMeanStrength() {
+        return fireCount == 0 ? 0.0 : strengthSum / fireCount;
+    }
+
+    public double getMaxStrength() {
+        return maxStrength;
+    }
+
+    /**
+     * Gets how many firings fell in each of {@link RuleProfiler#STRENGTH_BINS}
+     * equal-width bins of (0, 1]; strengths above 1 count in the last bin.
+     */
+    public long[] getStrengthHistogram() {
+        return strengthHistogram.clone();
+    }
+
+    /**
+     * Checks whether the rule never fired.
+     */
+    public boolean isDead() {
+        return fireCount == 0;
+    }
+
+    /**
+     * Checks whether the rule fired but never determined the output.
+     */
+    public boolean isDominated() {
+        return fireCount > 0 && winCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: fired %d, won %d, mean strength %.4f, max %.4f",
+                rule, fireCount, winCount, getMeanStrength(), maxStrength);
+    }
+}
@@ -0,0 +1,272 @@
+package fuzzy.metrics;
+
+import fuzzy.inference.InferenceEngine;
+import fuzzy.inference.MamdaniInference;
+import fuzzy.operators.MaxAggregation;
+import fuzzy.rules.Rule;
+import fuzzy.rules.RuleBase;
+import fuzzy.system.FuzzyLogicSystem;
+import fuzzy.variables.FuzzySet;
+import fuzzy.variables.LinguisticVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Profiles the rules of a fuzzy logic system over a workload to find rules
+ * that can be removed without changing the output.
+ *
+ * For every recorded evaluation the profiler notes which rules fired, the
+ * strength they fired with, and which rules determined the output. Under
+ * Mamdani inference with {@link MaxAggregation} only the strongest rule per
+ * consequent set shapes the output; the first such rule in rule order is
+ * counted as the winner, so identical duplicates are reported as dominated.
+ * With any other engine or aggregation every firing counts as a win.
+ *
+ * The rules, inference engine and output variable are taken from the system
+ * when the profiler is created. Recording is lock-free and may be done from
+ * several threads.
+ */
+public class RuleProfiler {
+    /** Number of equal-width bins in each rule's strength histogram. */
+    public static final int STRENGTH_BINS = 10;
+
+    private final FuzzyLogicSystem system;
+    private final InferenceEngine engine;
+    private final List<Rule> rules;
+    private final int[] consequentSlot; // per rule, index of its output set or -1
+    private final int slotCount;
+    private final boolean maxAggregation;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder[] fires;
+    private final LongAdder[] wins;
+    private final DoubleAdder[] strengthSums;
+    private final AtomicLongArray maxStrengthBits;
+    private final AtomicLongArray histogram; // rule * STRENGTH_BINS + bin
+
+    public RuleProfiler(FuzzyLogicSystem system) {
+        if (system == null) {
+            throw new IllegalArgumentException("System cannot be null");
+        }
+        this.system = system;
+        this.engine = system.getInferenceEngine();
+        this.rules = system.getRuleBase().getEnabledRules();
+        this.maxAggregation = engine instanceof MamdaniInference
+                && ((MamdaniInference) engine).getAggregationOperator() instanceof MaxAggregation;
+
+        List<FuzzySet> outputSets = new ArrayList<>(system.getOutputVariable().getAllFuzzySets());
+        int n = rules.size();
+        this.consequentSlot = new int[n];
+        this.slotCount = outputSets.size();
+        this.fires = new LongAdder[n];
+        this.wins = new LongAdder[n];
+        this.strengthSums = new DoubleAdder[n];
+        for (int i = 0; i < n; i++) {
+            consequentSlot[i] = -1;
+            for (int s = 0; s < outputSets.size(); s++) {
+                if (outputSets.get(s).getName().equals(rules.get(i).getConsequentFuzzySetName())) {
+                    consequentSlot[i] = s;
+                    break;
+                }
+            }
+            fires[i] = new LongAdder();
+            wins[i] = new LongAdder();
+            strengthSums[i] = new DoubleAdder();
+        }
+        this.maxStrengthBits = new AtomicLongArray(n);
+        this.histogram = new AtomicLongArray(n * STRENGTH_BINS);
+    }
+
+    /**
+     * Records one evaluation of the profiled rules.
+     *
+     * @param crispInputs map of input variable names to crisp values
+     */
+    public void record(Map<String, Double> crispInputs) {
+        double[] strengths = new double[rules.size()];
+        engine.infer(rules, system.fuzzify(crispInputs), system.getOutputVariable(), strengths);
+        evaluations.increment();
+
+        int[] winner = null;
+        if (maxAggregation) {
+            winner = new int[slotCount];
+            double[] best = new double[slotCount];
+            for (int i = 0; i < strengths.length; i++) {
+                int slot = consequentSlot[i];
+                if (slot >= 0 && strengths[i] > best[slot]) {
+                    best[slot] = strengths[i];
+                    winner[slot] = i + 1; // 0 means no rule fired
+                }
+            }
+        }
+
+        for (int i = 0; i < strengths.length; i++) {
+            double strength = strengths[i];
+            if (!(strength > 0)) {
+                continue;
+            }
+            fires[i].increment();
+            strengthSums[i].add(strength);
+            updateMax(i, strength);
+            int bin = Math.min(STRENGTH_BINS - 1, (int) Math.ceil(strength * STRENGTH_BINS) - 1);
+            histogram.incrementAndGet(i * STRENGTH_BINS + Math.max(0, bin));
+
+            int slot = consequentSlot[i];
+            boolean won = winner != null ? slot >= 0 && winner[slot] == i + 1
+                    : slot >= 0 || !(engine instanceof MamdaniInference);
+            if (won) {
+                wins[i].increment();
+            }
+        }
+    }
+
+    private void updateMax(int rule, double strength) {
+        long bits = Double.doubleToLongBits(strength);
+        long current;
+        while (Double.longBitsToDouble(current = maxStrengthBits.get(rule)) < strength) {
+            if (maxStrengthBits.compareAndSet(rule, current, bits)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records one evaluation per record of a dataset.
+     */
+    public void recordAll(Iterable<Map<String, Double>> dataset) {
+        for (Map<String, Double> crispInputs : dataset) {
+            record(crispInputs);
+        }
+    }
+
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Gets the statistics of every profiled rule, in rule order.
+     */
+    public List<RuleProfile> getProfiles() {
+        List<RuleProfile> profiles = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            long[] bins = new long[STRENGTH_BINS];
+            for (int b = 0; b < STRENGTH_BINS; b++) {
+                bins[b] = histogram.get(i * STRENGTH_BINS + b);
+            }
+            profiles.add(new RuleProfile(rules.get(i), fires[i].sum(), wins[i].sum(), strengthSums[i].sum(),
+                    Double.longBitsToDouble(maxStrengthBits.get(i)), bins));
+        }
+        return profiles;
+    }
+
+    /**
+     * Gets the rules that never fired.
+     */
+    public List<Rule> getDeadRules() {
+        List<Rule> dead = new ArrayList<>();
+        for (RuleProfile profile : getProfiles()) {
+            if (profile.isDead()) {
+                dead.add(profile.getRule());
+            }
+        }
+        return dead;
+    }
+
+    /**
+     * Gets the rules that fired but never determined the output.
+     */
+    public List<Rule> getDominatedRules() {
+        List<Rule> dominated = new ArrayList<>();
+        for (RuleProfile profile : getProfiles()) {
+            if (profile.isDominated()) {
+                dominated.add(profile.getRule());
+            }
+        }
+        return dominated;
+    }
+
+    /**
+     * Builds a rule base holding copies of only the rules that determined the
+     * output at least once, in their original order.
+     */
+    public RuleBase createPrunedRuleBase() {
+        RuleBase pruned = new RuleBase();
+        for (RuleProfile profile : getProfiles()) {
+            if (profile.getWinCount() > 0) {
+                pruned.addRule(profile.getRule().copy());
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Builds a system with the same variables, inference engine and
+     * defuzzification method whose rules are those of
+     * {@link #createPrunedRuleBase()}.
+     */
+    public FuzzyLogicSystem createPrunedSystem() {
+        LinguisticVariable output = system.getOutputVariable();
+        FuzzyLogicSystem pruned = new FuzzyLogicSystem(output);
+        for (LinguisticVariable input : system.getInputVariables()) {
+            pruned.addInputVariable(input);
+        }
+        pruned.setInferenceEngine(engine);
+        pruned.setDefuzzificationMethod(system.getDefuzzificationMethod());
+        for (Rule rule : createPrunedRuleBase().getAllRules()) {
+            pruned.getRuleBase().addRule(rule);
+        }
+        return pruned;
+    }
+
+    /**
+     * Evaluates a dataset with both the profiled system and the pruned system
+     * from {@link #createPrunedSystem()}. Pruning is safe for that dataset
+     * when the result is 0.
+     *
+     * @return largest absolute difference between the two outputs
+     */
+    public double verifyPruning(Iterable<Map<String, Double>> dataset) {
+        FuzzyLogicSystem pruned = createPrunedSystem();
+        double maxDifference = 0.0;
+        for (Map<String, Double> crispInputs : dataset) {
+            double expected = system.evaluate(crispInputs);
+            double actual = pruned.evaluate(crispInputs);
+            if (Double.compare(expected, actual) != 0) {
+                double difference = Math.abs(expected - actual);
+                maxDifference = Double.isNaN(difference) ? Double.POSITIVE_INFINITY
+                        : Math.max(maxDifference, difference);
+            }
+        }
+        return maxDifference;
+    }
+
+    /**
+     * Formats the dead and dominated rules as a readable report.
+     */
+    public String report() {
+        List<RuleProfile> profiles = getProfiles();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Rule profile over ").append(getEvaluationCount()).append(" evaluations\n");
+        int removable = 0;
+        sb.append("Never fired:\n");
+        for (RuleProfile profile : profiles) {
+            if (profile.isDead()) {
+                sb.append("  ").append(profile.getRule()).append('\n');
+                removable++;
+            }
+        }
+        sb.append("Fired but never affected the output:\n");
+        for (RuleProfile profile : profiles) {
+            if (profile.isDominated()) {
+                sb.append("  ").append(profile).append('\n');
+                removable++;
+            }
+        }
+        sb.append(removable).append(" of ").append(profiles.size()).append(" rules can be removed\n");
+        return sb.toString();
+    }
+}
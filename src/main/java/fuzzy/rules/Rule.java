@@ -5,6 +5,11 @@ import java.util.*;
 /**
  * Represents a fuzzy IF-THEN rule.
  * Antecedent can have multiple conditions connected by AND/OR.
+ *
+ * A rule becomes read-only once a {@link RuleBase} publishes it, because
+ * snapshots that other threads read and compiled plans share it. Change a
+ * published rule through {@link RuleBase#enableRule}, {@link RuleBase#disableRule}
+ * or {@link RuleBase#setRuleWeight}, or edit a {@link #copy()}.
  */
 public class Rule {
     public static class AntecedentCondition {
@@ -36,6 +41,7 @@ public class Rule {
     private final String consequentFuzzySetName;
     private boolean enabled;
     private double weight;
+    private volatile boolean published;
 
     public Rule(String consequentVariableName, String consequentFuzzySetName) {
         this.antecedent = new ArrayList<>();
@@ -45,7 +51,20 @@ public class Rule {
         this.weight = 1.0;
     }
 
+    /**
+     * Creates an independent, modifiable copy of this rule with the same
+     * conditions, consequent, enabled flag and weight.
+     */
+    public Rule copy() {
+        Rule copy = new Rule(consequentVariableName, consequentFuzzySetName);
+        copy.antecedent.addAll(antecedent);
+        copy.enabled = enabled;
+        copy.weight = weight;
+        return copy;
+    }
+
     public void addAntecedentCondition(String variableName, String fuzzySetName, boolean isAnd) {
+        checkModifiable();
         antecedent.add(new AntecedentCondition(variableName, fuzzySetName, isAnd));
     }
 
@@ -66,6 +85,7 @@ public class Rule {
     }
 
     public void setEnabled(boolean enabled) {
+        checkModifiable();
         this.enabled = enabled;
     }
 
@@ -74,12 +94,31 @@ public class Rule {
     }
 
     public void setWeight(double weight) {
+        checkModifiable();
         if (weight < 0 || weight > 1) {
             throw new IllegalArgumentException("Rule weight must be in [0, 1]");
         }
         this.weight = weight;
     }
 
+    /**
+     * Checks whether a rule base has published this rule, making it read-only.
+     */
+    public boolean isPublished() {
+        return published;
+    }
+
+    void publish() {
+        published = true;
+    }
+
+    private void checkModifiable() {
+        if (published) {
+            throw new IllegalStateException("Rule is published in a rule base; "
+                    + "change it through the rule base or modify a copy");
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("IF ");
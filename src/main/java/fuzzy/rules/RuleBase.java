@@ -1,69 +1,114 @@
 package fuzzy.rules;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Manages a collection of fuzzy rules with CRUD operations.
+ * The rules are held in an immutable {@link RuleBaseSnapshot}; every edit
+ * publishes a new snapshot with the next version number, so readers never
+ * lock and always see a consistent rule set. Enabling, disabling and
+ * reweighting replace the affected rule with a modified copy instead of
+ * changing a rule that published snapshots still reference.
  */
 public class RuleBase {
-    private final List<Rule> rules;
+    private final AtomicReference<RuleBaseSnapshot> current;
 
     public RuleBase() {
-        this.rules = new ArrayList<>();
+        this.current = new AtomicReference<>(RuleBaseSnapshot.EMPTY);
+    }
+
+    /**
+     * Gets the current snapshot of this rule base.
+     */
+    public RuleBaseSnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Gets the version of the current snapshot. It increases with every edit.
+     */
+    public long getVersion() {
+        return current.get().getVersion();
     }
 
     public void addRule(Rule rule) {
         if (rule == null) {
             throw new IllegalArgumentException("Rule cannot be null");
         }
-        rules.add(rule);
+        publish(rules -> rules.add(rule));
     }
 
     public void removeRule(int index) {
-        if (index < 0 || index >= rules.size()) {
-            throw new IndexOutOfBoundsException("Invalid rule index");
-        }
-        rules.remove(index);
+        publish(rules -> {
+            checkIndex(rules, index);
+            rules.remove(index);
+        });
     }
 
     public Rule getRule(int index) {
-        if (index < 0 || index >= rules.size()) {
-            throw new IndexOutOfBoundsException("Invalid rule index");
-        }
-        return rules.get(index);
+        return current.get().getRule(index);
     }
 
     public List<Rule> getAllRules() {
-        return Collections.unmodifiableList(rules);
+        return current.get().getAllRules();
     }
 
     public List<Rule> getEnabledRules() {
-        List<Rule> enabled = new ArrayList<>();
-        for (Rule rule : rules) {
-            if (rule.isEnabled()) {
-                enabled.add(rule);
-            }
-        }
-        return enabled;
+        return current.get().getEnabledRules();
     }
 
     public int size() {
-        return rules.size();
+        return current.get().size();
     }
 
     public void clear() {
-        rules.clear();
+        publish(List::clear);
     }
 
     public void enableRule(int index) {
-        getRule(index).setEnabled(true);
+        publish(rules -> {
+            checkIndex(rules, index);
+            Rule copy = rules.get(index).copy();
+            copy.setEnabled(true);
+            rules.set(index, copy);
+        });
     }
 
     public void disableRule(int index) {
-        getRule(index).setEnabled(false);
+        publish(rules -> {
+            checkIndex(rules, index);
+            Rule copy = rules.get(index).copy();
+            copy.setEnabled(false);
+            rules.set(index, copy);
+        });
     }
 
     public void setRuleWeight(int index, double weight) {
-        getRule(index).setWeight(weight);
+        publish(rules -> {
+            checkIndex(rules, index);
+            Rule copy = rules.get(index).copy();
+            copy.setWeight(weight);
+            rules.set(index, copy);
+        });
+    }
+
+    private void publish(Consumer<List<Rule>> edit) {
+        while (true) {
+            RuleBaseSnapshot snapshot = current.get();
+            List<Rule> rules = new ArrayList<>(snapshot.getAllRules());
+            edit.accept(rules);
+            RuleBaseSnapshot next = new RuleBaseSnapshot(snapshot.getVersion() + 1, rules);
+            if (current.compareAndSet(snapshot, next)) {
+                return;
+            }
+        }
+    }
+
+    private static void checkIndex(List<Rule> rules, int index) {
+        if (index < 0 || index >= rules.size()) {
+            throw new IndexOutOfBoundsException("Invalid rule index");
+        }
     }
 }
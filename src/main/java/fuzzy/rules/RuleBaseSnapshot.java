@@ -0,0 +1,52 @@
+package fuzzy.rules;
+
+import java.util.*;
+
+/**
+ * Immutable, versioned view of a {@link RuleBase}.
+ * The list of enabled rules is computed once when the snapshot is created,
+ * and its rules are marked published so they can no longer be modified.
+ */
+public final class RuleBaseSnapshot {
+    static final RuleBaseSnapshot EMPTY = new RuleBaseSnapshot(0, Collections.emptyList());
+
+    private final long version;
+    private final List<Rule> rules;
+    private final List<Rule> enabledRules;
+
+    RuleBaseSnapshot(long version, List<Rule> rules) {
+        this.version = version;
+        this.rules = Collections.unmodifiableList(rules);
+        List<Rule> enabled = new ArrayList<>();
+        for (Rule rule : rules) {
+            rule.publish();
+            if (rule.isEnabled()) {
+                enabled.add(rule);
+            }
+        }
+        this.enabledRules = Collections.unmodifiableList(enabled);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Rule getRule(int index) {
+        if (index < 0 || index >= rules.size()) {
+            throw new IndexOutOfBoundsException("Invalid rule index");
+        }
+        return rules.get(index);
+    }
+
+    public List<Rule> getAllRules() {
+        return rules;
+    }
+
+    public List<Rule> getEnabledRules() {
+        return enabledRules;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+}
@@ -0,0 +1,385 @@
+package fuzzy.system;
+
+import fuzzy.defuzzification.CentroidDefuzzification;
+import fuzzy.defuzzification.DefuzzificationMethod;
+import fuzzy.membership.GaussianMF;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.TrapezoidalMF;
+import fuzzy.membership.TriangularMF;
+import fuzzy.operators.*;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes the Java source of a {@link GeneratedSystem} subclass for one plan,
+ * compiles it in memory with the platform compiler and loads it in its own
+ * class loader.
+ *
+ * The generated arithmetic repeats the plan's operations in the same order,
+ * with parameters emitted as exact hexadecimal literals, so results are
+ * bit-identical. Only standard library classes (matched by exact class, not
+ * subclass) are inlined; anything else is called through a field. Long rule
+ * bases are split into several methods to stay below the JVM method size
+ * limit.
+ */
+final class CodeGenerator {
+    private static final String PACKAGE = "fuzzy.generated";
+    private static final int SETS_PER_METHOD = 200;
+    private static final int TERMS_PER_METHOD = 600;
+    private static final AtomicLong CLASS_IDS = new AtomicLong();
+
+    private final CompiledSystem plan;
+
+    CodeGenerator(CompiledSystem plan) {
+        this.plan = plan;
+    }
+
+    GeneratedSystem generate() {
+        String className = "Plan" + CLASS_IDS.incrementAndGet();
+        String source = source(className);
+        Class<?> type = compile(PACKAGE + "." + className, source);
+        try {
+            return (GeneratedSystem) type.getConstructor(CompiledSystem.class).newInstance(plan);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate generated evaluator", e);
+        }
+    }
+
+    String source(String className) {
+        int samples = inlinedCentroidSamples();
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(PACKAGE).append(";\n\n");
+        out.append("public final class ").append(className).append(" extends fuzzy.system.GeneratedSystem {\n");
+        out.append("    public ").append(className).append("(fuzzy.system.CompiledSystem plan) {\n");
+        out.append("        super(plan, ").append(samples).append(");\n");
+        out.append("    }\n\n");
+
+        StringBuilder methods = new StringBuilder();
+        List<String> calls = new ArrayList<>();
+        writeFuzzification(methods, calls);
+        writeRules(methods, calls);
+
+        out.append("    @Override\n");
+        out.append("    protected void infer(double[] in, double[] m, double[] s, double[] r) {\n");
+        for (String call : calls) {
+            out.append("        ").append(call).append(";\n");
+        }
+        out.append("    }\n\n");
+        out.append(methods);
+        if (samples > 0) {
+            writeCentroid(out, samples);
+        }
+        out.append("    private static double positive(double v) {\n");
+        out.append("        return v > 0 ? v : 0.0;\n");
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void writeFuzzification(StringBuilder out, List<String> calls) {
+        int slots = plan.getSlotCount();
+        int variable = -1;
+        int emitted = SETS_PER_METHOD;
+        for (int slot = 0; slot < slots; slot++) {
+            boolean newVariable = false;
+            while (plan.getSetOffset(variable + 1) <= slot) {
+                variable++;
+                newVariable = true;
+            }
+            if (emitted == SETS_PER_METHOD) {
+                if (!calls.isEmpty()) {
+                    out.append("    }\n\n");
+                }
+                String name = "fuzzify" + calls.size();
+                calls.add(name + "(in, m)");
+                out.append("    private void ").append(name).append("(double[] in, double[] m) {\n");
+                out.append("        double x;\n");
+                emitted = 0;
+                newVariable = true;
+            }
+            if (newVariable) {
+                double min = plan.getInputMinDomain(variable);
+                double max = plan.getInputMaxDomain(variable);
+                out.append("        x = in[").append(variable).append("];\n");
+                out.append("        x = Double.isNaN(x) || Double.isInfinite(x) ? ")
+                        .append(literal((min + max) / 2.0)).append(" : Math.max(").append(literal(min))
+                        .append(", Math.min(").append(literal(max)).append(", x));\n");
+            }
+            out.append("        m[").append(slot).append("] = positive(").append(membership(slot)).append(");\n");
+            emitted++;
+        }
+        if (emitted > 0 && slots > 0) {
+            out.append("    }\n\n");
+        }
+    }
+
+    private String membership(int slot) {
+        MembershipFunction function = plan.getInputSet(slot);
+        if (function.getClass() == TriangularMF.class) {
+            TriangularMF mf = (TriangularMF) function;
+            String a = literal(mf.getA());
+            String b = literal(mf.getB());
+            String c = literal(mf.getC());
+            return "x <= " + a + " || x >= " + c + " ? 0.0 : x == " + b + " ? 1.0 : x < " + b
+                    + " ? (x - " + a + ") / " + literal(mf.getB() - mf.getA())
+                    + " : (" + c + " - x) / " + literal(mf.getC() - mf.getB());
+        } else if (function.getClass() == TrapezoidalMF.class) {
+            TrapezoidalMF mf = (TrapezoidalMF) function;
+            String a = literal(mf.getA());
+            String b = literal(mf.getB());
+            String c = literal(mf.getC());
+            String d = literal(mf.getD());
+            return "x <= " + a + " || x >= " + d + " ? 0.0 : x >= " + b + " && x <= " + c + " ? 1.0 : x < " + b
+                    + " ? (x - " + a + ") / " + literal(mf.getB() - mf.getA())
+                    + " : (" + d + " - x) / " + literal(mf.getD() - mf.getC());
+        } else if (function.getClass() == GaussianMF.class) {
+            GaussianMF mf = (GaussianMF) function;
+            return "Math.exp(-0.5 * Math.pow((x - " + literal(mf.getCenter()) + ") / "
+                    + literal(mf.getWidth()) + ", 2))";
+        }
+        return "inputSets[" + slot + "].calculate(x)";
+    }
+
+    private void writeRules(StringBuilder out, List<String> calls) {
+        int rules = plan.getRuleCount();
+        int terms = 0;
+        boolean open = false;
+        for (int r = 0; r < rules; r++) {
+            int start = plan.getRuleStart(r);
+            int end = plan.getRuleStart(r + 1);
+            if (!open || terms + (end - start) > TERMS_PER_METHOD && terms > 0) {
+                if (open) {
+                    out.append("    }\n\n");
+                }
+                String name = "rules" + calls.size();
+                calls.add(name + "(m, s, r)");
+                out.append("    private void ").append(name).append("(double[] m, double[] s, double[] r) {\n");
+                out.append("        double f;\n");
+                terms = 0;
+                open = true;
+            }
+            writeRule(out, r, start, end);
+            terms += Math.max(1, end - start);
+        }
+        if (open) {
+            out.append("    }\n\n");
+        }
+    }
+
+    private void writeRule(StringBuilder out, int rule, int start, int end) {
+        double weight = plan.getRuleWeight(rule);
+        if (start == end) {
+            out.append("        f = ").append(literal(weight)).append(";\n");
+        } else {
+            out.append("        f = ").append(term(start)).append(";\n");
+            for (int t = start + 1; t < end; t++) {
+                String operand = term(t);
+                out.append("        f = ").append(plan.isTermAnd(t) ? and(operand) : or(operand)).append(";\n");
+            }
+            out.append("        f = f * ").append(literal(weight)).append(";\n");
+        }
+
+        if (!plan.isSugeno() && !plan.isMaxAggregation()) {
+            // aggregated per set after all rules, see StrengthBuffer
+            out.append("        r[").append(rule).append("] = f;\n");
+            return;
+        }
+        out.append("        if (f > 0) {\n");
+        if (plan.isSugeno()) {
+            out.append("            s[0] += f * ").append(literal(plan.getConsequentValue(rule))).append(";\n");
+            out.append("            s[1] += f;\n");
+        } else {
+            String set = "s[" + plan.getConsequent(rule) + "]";
+            out.append("            ").append(set).append(" = Math.max(").append(set).append(", f);\n");
+        }
+        out.append("        }\n");
+    }
+
+    private String term(int term) {
+        int slot = plan.getTermSet(term);
+        return slot == plan.getSlotCount() ? "0.0" : "m[" + slot + "]";
+    }
+
+    private String and(String operand) {
+        TNorm operator = plan.getAndOperator();
+        if (operator.getClass() == MinTNorm.class) {
+            return "Math.min(f, " + operand + ")";
+        } else if (operator.getClass() == ProductTNorm.class) {
+            return "f * " + operand;
+        }
+        return "andOperator.compute(f, " + operand + ")";
+    }
+
+    private String or(String operand) {
+        SNorm operator = plan.getOrOperator();
+        if (operator.getClass() == MaxSNorm.class) {
+            return "Math.max(f, " + operand + ")";
+        } else if (operator.getClass() == SumSNorm.class) {
+            return "Math.min(1.0, f + " + operand + ")";
+        }
+        return "orOperator.compute(f, " + operand + ")";
+    }
+
+    /**
+     * Gets the sample count when the centroid loop can be inlined, or 0.
+     */
+    private int inlinedCentroidSamples() {
+        if (plan.isSugeno()) {
+            return 0;
+        }
+        DefuzzificationMethod method = plan.getDefuzzificationMethod();
+        Class<?> implication = plan.getImplicationOperator().getClass();
+        if (method.getClass() != CentroidDefuzzification.class
+                || ((CentroidDefuzzification) method).getKernels() != null
+                || (implication != MinImplication.class && implication != ProductImplication.class)) {
+            return 0;
+        }
+        return ((CentroidDefuzzification) method).getSamples();
+    }
+
+    private void writeCentroid(StringBuilder out, int samples) {
+        double min = plan.getOutputMinDomain();
+        double max = plan.getOutputMaxDomain();
+        int sets = plan.getOutputSetCount();
+        boolean clipping = plan.getImplicationOperator().getClass() == MinImplication.class;
+
+        out.append("    @Override\n");
+        out.append("    protected double defuzzify(double[] s, fuzzy.defuzzification.MamdaniAggregatedSet set) {\n");
+        for (int k = 0; k < sets; k++) {
+            out.append("        double s").append(k).append(" = s[").append(k).append("];\n");
+            out.append("        double[] r").append(k).append(" = sampleRows[").append(k).append("];\n");
+        }
+        out.append("        double numerator = 0.0;\n");
+        out.append("        double denominator = 0.0;\n");
+        out.append("        for (int i = 0; i <= ").append(samples).append("; i++) {\n");
+        out.append("            double x = ").append(literal(min)).append(" + i * ")
+                .append(literal((max - min) / samples)).append(";\n");
+        out.append("            double mu = 0.0;\n");
+        for (int k = 0; k < sets; k++) {
+            String implied = clipping ? "Math.min(s" + k + ", r" + k + "[i])" : "s" + k + " * r" + k + "[i]";
+            out.append("            if (s").append(k).append(" > 0) {\n");
+            out.append("                mu = Math.max(mu, ").append(implied).append(");\n");
+            out.append("            }\n");
+        }
+        out.append("            numerator += x * mu;\n");
+        out.append("            denominator += mu;\n");
+        out.append("        }\n");
+        out.append("        if (denominator == 0.0) {\n");
+        out.append("            return ").append(literal((min + max) / 2.0)).append(";\n");
+        out.append("        }\n");
+        out.append("        return numerator / denominator;\n");
+        out.append("    }\n\n");
+    }
+
+    private static String literal(double value) {
+        if (Double.isNaN(value)) {
+            return "Double.NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "Double.POSITIVE_INFINITY" : "Double.NEGATIVE_INFINITY";
+        }
+        return "(" + Double.toHexString(value) + ")";
+    }
+
+    private static Class<?> compile(String className, String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No Java compiler available; code generation requires a JDK");
+        }
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaFileObject unit = new SimpleJavaFileObject(
+                URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        List<String> options = Arrays.asList("-classpath", classPath(), "-proc:none", "-g:none");
+        try (MemoryFileManager fileManager = new MemoryFileManager(
+                compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8))) {
+            boolean compiled = compiler.getTask(null, fileManager, diagnostics, options, null,
+                    Collections.singletonList(unit)).call();
+            if (!compiled) {
+                throw new IllegalStateException("Generated evaluator failed to compile: "
+                        + diagnostics.getDiagnostics());
+            }
+            return new GeneratedClassLoader(fileManager.classes).loadClass(className);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Generated evaluator was not produced", e);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot close the compiler's file manager", e);
+        }
+    }
+
+    /**
+     * Gets the application class path plus the location of this library, which
+     * may differ when the library is loaded by a custom class loader.
+     */
+    private static String classPath() {
+        String classPath = System.getProperty("java.class.path", "");
+        CodeSource codeSource = GeneratedSystem.class.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+            try {
+                classPath = Paths.get(codeSource.getLocation().toURI()) + File.pathSeparator + classPath;
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // keep the application class path
+            }
+        }
+        return classPath;
+    }
+
+    /**
+     * Keeps compiled classes in memory instead of writing class files.
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        final Map<String, ByteArrayOutputStream> classes = new HashMap<>();
+
+        MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("memory:///" + className.replace('.', '/') + kind.extension),
+                    kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    classes.put(className, bytes);
+                    return bytes;
+                }
+            };
+        }
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+        private final Map<String, ByteArrayOutputStream> classes;
+
+        GeneratedClassLoader(Map<String, ByteArrayOutputStream> classes) {
+            super(GeneratedSystem.class.getClassLoader());
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            ByteArrayOutputStream bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            byte[] code = bytes.toByteArray();
+            return defineClass(name, code, 0, code.length);
+        }
+    }
+}
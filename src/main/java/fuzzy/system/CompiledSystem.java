@@ -0,0 +1,877 @@
+package fuzzy.system;
+
+import fuzzy.defuzzification.AggregatedCurve;
+import fuzzy.defuzzification.DefuzzificationMethod;
+import fuzzy.defuzzification.MamdaniAggregatedSet;
+import fuzzy.defuzzification.OutputSampleCache;
+import fuzzy.inference.InferenceEngine;
+import fuzzy.inference.MamdaniInference;
+import fuzzy.inference.SugenoInference;
+import fuzzy.membership.ArrayKernels;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.SupportIndex;
+import fuzzy.operators.*;
+import fuzzy.rules.Rule;
+import fuzzy.variables.FuzzySet;
+import fuzzy.variables.LinguisticVariable;
+
+import java.util.*;
+
+/**
+ * Immutable, index-based evaluation plan produced by
+ * {@link FuzzyLogicSystem#compile()}.
+ * Variables, fuzzy sets and rules are resolved to integer ids once, so
+ * {@link #evaluate(double...)} works on flat primitive arrays only.
+ * A plan is safe to share between threads.
+ */
+public final class CompiledSystem {
+    private static final int BATCH_BLOCK = 256; // rows processed together in batch evaluation
+
+    private final String[] inputNames;
+    private final double[] inputMin;
+    private final double[] inputMax;
+    private final int[] setOffset; // per input variable, into inputSets; length = inputs + 1
+    private final MembershipFunction[] inputSets; // flattened input fuzzy sets
+    private final SupportIndex[] supportIndex; // per input variable, null for small partitions
+    private final ArrayKernels kernels; // batch fuzzification of small partitions
+    private final int zeroSlot; // membership slot that always holds 0.0
+    private final long version;
+
+    private final int[] ruleStart; // per rule, into the term arrays; length = rules + 1
+    private final int[] termSet; // membership slot of each antecedent term
+    private final boolean[] termAnd; // connective joining the term to the previous result
+    private final double[] ruleWeight;
+    private final int[] ruleConsequent; // output set id (Mamdani)
+    private final double[] ruleConsequentValue; // crisp consequent (Sugeno)
+    private final int[] andTail; // per rule, first term from which only AND connectives follow
+    private final RuleIndex ruleIndex; // null unless the operators allow sparse activation
+    private final int[] variableRuleStart; // per input variable, into variableRules; length = inputs + 1
+    private final int[] variableRules; // rules with a term on the variable, ascending
+    private final int[] consequentRuleStart; // per output set, into consequentRules; length = sets + 1
+    private final int[] consequentRules; // Mamdani rules concluding the set, ascending
+
+    private final boolean sugeno;
+    private final TNorm andOperator;
+    private final SNorm orOperator;
+    private final ImplicationOperator implicationOperator;
+    private final AggregationOperator aggregationOperator;
+    private final boolean maxAggregation;
+    private final DefuzzificationMethod defuzzificationMethod;
+    private final MembershipFunction[] outputSets;
+    private final double outputMin;
+    private final double outputMax;
+    private final OutputSampleCache sampleCache;
+    private final boolean shortCircuit; // AND with 0 always yields 0
+    private final ThreadLocal<PlanScratch> scratch;
+
+    CompiledSystem(long version,
+            Collection<LinguisticVariable> inputVariables,
+            LinguisticVariable outputVariable,
+            List<Rule> rules,
+            InferenceEngine inferenceEngine,
+            DefuzzificationMethod defuzzificationMethod) {
+        this.version = version;
+        int inputCount = inputVariables.size();
+        this.inputNames = new String[inputCount];
+        this.inputMin = new double[inputCount];
+        this.inputMax = new double[inputCount];
+        this.setOffset = new int[inputCount + 1];
+
+        Map<String, Map<String, Integer>> slots = new HashMap<>();
+        List<MembershipFunction> sets = new ArrayList<>();
+        int v = 0;
+        for (LinguisticVariable variable : inputVariables) {
+            inputNames[v] = variable.getName();
+            inputMin[v] = variable.getMinDomain();
+            inputMax[v] = variable.getMaxDomain();
+            setOffset[v] = sets.size();
+            Map<String, Integer> variableSlots = new HashMap<>();
+            for (FuzzySet fuzzySet : variable.getAllFuzzySets()) {
+                variableSlots.put(fuzzySet.getName(), sets.size());
+                sets.add(fuzzySet.getMembershipFunction());
+            }
+            slots.put(variable.getName(), variableSlots);
+            v++;
+        }
+        setOffset[inputCount] = sets.size();
+        this.inputSets = sets.toArray(new MembershipFunction[0]);
+        this.zeroSlot = inputSets.length;
+        this.kernels = ArrayKernels.exact();
+        this.supportIndex = new SupportIndex[inputCount];
+        for (v = 0; v < inputCount; v++) {
+            if (setOffset[v + 1] - setOffset[v] >= SupportIndex.MIN_INDEXED_SETS) {
+                supportIndex[v] = new SupportIndex(
+                        Arrays.copyOfRange(inputSets, setOffset[v], setOffset[v + 1]));
+            }
+        }
+
+        if (inferenceEngine instanceof MamdaniInference) {
+            MamdaniInference mamdani = (MamdaniInference) inferenceEngine;
+            this.sugeno = false;
+            this.andOperator = mamdani.getAndOperator();
+            this.orOperator = mamdani.getOrOperator();
+            this.implicationOperator = mamdani.getImplicationOperator();
+            this.aggregationOperator = mamdani.getAggregationOperator();
+        } else if (inferenceEngine instanceof SugenoInference) {
+            SugenoInference sugenoEngine = (SugenoInference) inferenceEngine;
+            if (sugenoEngine.isFirstOrder()) {
+                throw new IllegalStateException("First-order Sugeno inference cannot be compiled");
+            }
+            this.sugeno = true;
+            this.andOperator = sugenoEngine.getAndOperator();
+            this.orOperator = sugenoEngine.getOrOperator();
+            this.implicationOperator = null;
+            this.aggregationOperator = null;
+        } else {
+            throw new IllegalStateException("Only Mamdani and Sugeno inference can be compiled");
+        }
+        this.maxAggregation = aggregationOperator != null && aggregationOperator.getClass() == MaxAggregation.class;
+        this.defuzzificationMethod = defuzzificationMethod;
+
+        Map<String, Integer> outputIds = new HashMap<>();
+        List<MembershipFunction> outputs = new ArrayList<>();
+        for (FuzzySet fuzzySet : outputVariable.getAllFuzzySets()) {
+            outputIds.put(fuzzySet.getName(), outputs.size());
+            outputs.add(fuzzySet.getMembershipFunction());
+        }
+        this.outputSets = outputs.toArray(new MembershipFunction[0]);
+        this.outputMin = outputVariable.getMinDomain();
+        this.outputMax = outputVariable.getMaxDomain();
+        this.sampleCache = new OutputSampleCache(outputSets, outputMin, outputMax);
+
+        // Mamdani rules whose consequent is not an output set can never contribute
+        List<Rule> compiled = new ArrayList<>();
+        int termCount = 0;
+        for (Rule rule : rules) {
+            if (!rule.isEnabled()) {
+                continue;
+            }
+            if (!sugeno && !outputIds.containsKey(rule.getConsequentFuzzySetName())) {
+                continue;
+            }
+            compiled.add(rule);
+            termCount += rule.getAntecedent().size();
+        }
+
+        int ruleCount = compiled.size();
+        this.ruleStart = new int[ruleCount + 1];
+        this.termSet = new int[termCount];
+        this.termAnd = new boolean[termCount];
+        this.ruleWeight = new double[ruleCount];
+        this.ruleConsequent = new int[ruleCount];
+        this.ruleConsequentValue = new double[ruleCount];
+        this.andTail = new int[ruleCount];
+
+        Map<String, Double> consequentValues = sugeno
+                ? ((SugenoInference) inferenceEngine).getConsequentValues()
+                : Collections.emptyMap();
+        int t = 0;
+        for (int r = 0; r < ruleCount; r++) {
+            Rule rule = compiled.get(r);
+            ruleStart[r] = t;
+            for (Rule.AntecedentCondition cond : rule.getAntecedent()) {
+                Map<String, Integer> variableSlots = slots.get(cond.getVariableName());
+                Integer slot = variableSlots == null ? null : variableSlots.get(cond.getFuzzySetName());
+                termSet[t] = slot == null ? zeroSlot : slot;
+                termAnd[t] = cond.isAnd();
+                t++;
+            }
+            ruleWeight[r] = rule.getWeight();
+            if (sugeno) {
+                ruleConsequent[r] = -1;
+                ruleConsequentValue[r] = consequentValues.getOrDefault(rule.getConsequentFuzzySetName(), 0.0);
+            } else {
+                ruleConsequent[r] = outputIds.get(rule.getConsequentFuzzySetName());
+            }
+            andTail[r] = t;
+            while (andTail[r] > ruleStart[r] + 1 && termAnd[andTail[r] - 1]) {
+                andTail[r]--;
+            }
+        }
+        ruleStart[ruleCount] = t;
+
+        this.variableRuleStart = new int[inputCount + 1];
+        int[] touching = new int[ruleCount * inputCount];
+        int touchingCount = 0;
+        for (v = 0; v < inputCount; v++) {
+            variableRuleStart[v] = touchingCount;
+            for (int r = 0; r < ruleCount; r++) {
+                for (int k = ruleStart[r]; k < ruleStart[r + 1]; k++) {
+                    if (termSet[k] >= setOffset[v] && termSet[k] < setOffset[v + 1]) {
+                        touching[touchingCount++] = r;
+                        break;
+                    }
+                }
+            }
+        }
+        variableRuleStart[inputCount] = touchingCount;
+        this.variableRules = Arrays.copyOf(touching, touchingCount);
+
+        this.consequentRuleStart = new int[outputSets.length + 1];
+        this.consequentRules = new int[sugeno ? 0 : ruleCount];
+        int concluding = 0;
+        for (int set = 0; set < outputSets.length; set++) {
+            consequentRuleStart[set] = concluding;
+            for (int r = 0; r < consequentRules.length; r++) {
+                if (ruleConsequent[r] == set) {
+                    consequentRules[concluding++] = r;
+                }
+            }
+        }
+        consequentRuleStart[outputSets.length] = concluding;
+
+        this.shortCircuit = andOperator instanceof MinTNorm || andOperator instanceof ProductTNorm;
+        boolean sparse = shortCircuit && (orOperator instanceof MaxSNorm || orOperator instanceof SumSNorm);
+        this.ruleIndex = sparse ? new RuleIndex(zeroSlot, ruleStart, termSet, termAnd) : null;
+        this.scratch = ThreadLocal.withInitial(this::newScratch);
+    }
+
+    /**
+     * Evaluates the plan for one record.
+     *
+     * @param inputs crisp input values, ordered as {@link #getInputNames()}
+     * @return crisp output value
+     */
+    public double evaluate(double... inputs) {
+        return evaluate(scratch.get(), inputs);
+    }
+
+    /**
+     * Evaluates the plan for one record using the buffers of a caller-owned
+     * context. Once the context has been used with this plan, the call
+     * allocates nothing.
+     *
+     * @param context working buffers, not shared with a concurrent call
+     * @param inputs  crisp input values, ordered as {@link #getInputNames()}
+     * @return crisp output value
+     */
+    public double evaluate(EvaluationContext context, double[] inputs) {
+        return evaluate(context.scratchFor(this), inputs);
+    }
+
+    private double evaluate(PlanScratch work, double[] inputs) {
+        double output = infer(work, inputs);
+        if (sugeno) {
+            return output;
+        }
+        return defuzzificationMethod.defuzzify(work.aggregatedSet);
+    }
+
+    /**
+     * Evaluates one record with several defuzzification methods.
+     * Fuzzification, inference and aggregation run once, and the aggregated
+     * set is sampled once into an {@link AggregatedCurve} of
+     * {@link AggregatedCurve#DEFAULT_SAMPLES} intervals that every method
+     * reads. Sugeno plans have no aggregated set and write their weighted
+     * average for every method.
+     *
+     * @param inputs  crisp input values, ordered as {@link #getInputNames()}
+     * @param methods defuzzification methods, used instead of the plan's own
+     * @param out     receives one crisp output per method
+     */
+    public void evaluateAll(double[] inputs, DefuzzificationMethod[] methods, double[] out) {
+        if (out.length < methods.length) {
+            throw new IllegalArgumentException("Expected room for " + methods.length + " outputs but got "
+                    + out.length);
+        }
+        PlanScratch work = scratch.get();
+        double output = infer(work, inputs);
+        if (sugeno) {
+            Arrays.fill(out, 0, methods.length, output);
+            return;
+        }
+        AggregatedCurve curve = work.curve();
+        curve.sample(work.aggregatedSet, AggregatedCurve.DEFAULT_SAMPLES);
+        for (int m = 0; m < methods.length; m++) {
+            out[m] = methods[m].defuzzify(curve);
+        }
+    }
+
+    /**
+     * Computes the aggregated output set of one record and samples it into a
+     * new curve for inspection, e.g. to compare defuzzification methods.
+     *
+     * @param inputs  crisp input values, ordered as {@link #getInputNames()}
+     * @param samples number of intervals of the curve's grid
+     * @return curve over a snapshot of the output set strengths
+     * @throws IllegalStateException for Sugeno plans, which have no
+     *                               aggregated output set
+     */
+    public AggregatedCurve aggregate(double[] inputs, int samples) {
+        if (sugeno) {
+            throw new IllegalStateException("Sugeno plans have no aggregated output set");
+        }
+        PlanScratch work = scratch.get();
+        infer(work, inputs);
+        MamdaniAggregatedSet aggregatedSet = newAggregatedSet(work.strengths.clone());
+        return new AggregatedCurve(aggregatedSet, samples);
+    }
+
+    /**
+     * Fuzzifies one record and applies the rules. Mamdani plans leave the
+     * output set strengths in the scratch.
+     *
+     * @return the crisp output of a Sugeno plan, or NaN for a Mamdani plan
+     */
+    private double infer(PlanScratch work, double[] inputs) {
+        if (inputs.length != inputNames.length) {
+            throw new IllegalArgumentException("Expected " + inputNames.length + " inputs but got "
+                    + inputs.length);
+        }
+        int activeCount = fuzzify(inputs, work);
+
+        int[] rules = null;
+        int ruleCount = ruleWeight.length;
+        if (ruleIndex != null) {
+            rules = work.candidates;
+            ruleCount = ruleIndex.collect(work.activeSets, activeCount, work.ruleHits, rules);
+        }
+
+        if (sugeno) {
+            return inferSugeno(work.memberships, rules, ruleCount);
+        }
+        Arrays.fill(work.strengths, 0.0);
+        inferMamdani(work.memberships, rules, ruleCount, work.strengths, work.strengthBuffer);
+        return Double.NaN;
+    }
+
+    PlanScratch newScratch() {
+        double[] strengths = new double[outputSets.length];
+        return new PlanScratch(zeroSlot, ruleWeight.length, strengths, newStrengthBuffer(),
+                newAggregatedSet(strengths));
+    }
+
+    /**
+     * Creates a buffer for aggregating all firing strengths of a set at once,
+     * or null when strengths are folded with the maximum one rule at a time
+     * (max aggregation) or not aggregated at all (Sugeno plans).
+     */
+    StrengthBuffer newStrengthBuffer() {
+        return sugeno || maxAggregation ? null
+                : new StrengthBuffer(aggregationOperator, consequentRuleStart, consequentRules);
+    }
+
+    /**
+     * Creates the Mamdani output set defined by per-set strengths, or null
+     * for Sugeno plans.
+     */
+    MamdaniAggregatedSet newAggregatedSet(double[] strengths) {
+        return sugeno ? null
+                : new MamdaniAggregatedSet(outputSets, strengths, implicationOperator, outputMin, outputMax,
+                        sampleCache);
+    }
+
+    /**
+     * Creates a stateful evaluator that re-evaluates only the rules affected
+     * by a changed input. Each evaluator starts with every input at the
+     * centre of its domain.
+     */
+    public IncrementalEvaluator newIncrementalEvaluator() {
+        return new IncrementalEvaluator(this);
+    }
+
+    /**
+     * Evaluates many records stored column by column.
+     *
+     * @param columns one column of crisp values per input, ordered as
+     *                {@link #getInputNames()}
+     * @param out     receives one crisp output per record
+     */
+    public void evaluateBatch(double[][] columns, double[] out) {
+        evaluateBatch(columns, 0, out.length, out);
+    }
+
+    /**
+     * Evaluates records [from, to) stored column by column. Record i is read
+     * from columns[v][i] and written to out[i].
+     * Records are processed in small blocks: each input column is fuzzified
+     * across the block, then every rule that can fire for some record in the
+     * block is applied across the block before the block is defuzzified.
+     * Mamdani plans with an aggregation operator other than the maximum
+     * evaluate one record at a time instead.
+     *
+     * @param columns one column of crisp values per input, ordered as
+     *                {@link #getInputNames()}
+     * @param from    first record (inclusive)
+     * @param to      last record (exclusive)
+     * @param out     receives one crisp output per record
+     */
+    public void evaluateBatch(double[][] columns, int from, int to, double[] out) {
+        if (columns.length != inputNames.length) {
+            throw new IllegalArgumentException("Expected " + inputNames.length + " columns but got "
+                    + columns.length);
+        }
+        if (from < 0 || from > to || to > out.length) {
+            throw new IndexOutOfBoundsException("Invalid record range [" + from + ", " + to + ")");
+        }
+        for (double[] column : columns) {
+            if (column.length < to) {
+                throw new IndexOutOfBoundsException("Column shorter than record range");
+            }
+        }
+        if (!sugeno && !maxAggregation) {
+            evaluateRecords(columns, from, to, out);
+            return;
+        }
+
+        double[][] memberships = new double[zeroSlot + 1][BATCH_BLOCK];
+        boolean[] activeSlots = new boolean[zeroSlot + 1];
+        int[] setCandidates = new int[zeroSlot];
+        double[] values = new double[BATCH_BLOCK];
+        double[] firing = new double[BATCH_BLOCK];
+        double[][] strengths = new double[outputSets.length][BATCH_BLOCK];
+        double[] weightedSums = new double[BATCH_BLOCK];
+        double[] weightSums = new double[BATCH_BLOCK];
+        double[] recordStrengths = new double[outputSets.length];
+        MamdaniAggregatedSet aggregatedSet = sugeno ? null
+                : new MamdaniAggregatedSet(outputSets, recordStrengths, implicationOperator, outputMin, outputMax,
+                        sampleCache);
+
+        for (int blockStart = from; blockStart < to; blockStart += BATCH_BLOCK) {
+            int n = Math.min(BATCH_BLOCK, to - blockStart);
+            fuzzifyBlock(columns, blockStart, n, values, memberships, activeSlots, setCandidates);
+
+            if (sugeno) {
+                Arrays.fill(weightedSums, 0, n, 0.0);
+                Arrays.fill(weightSums, 0, n, 0.0);
+            } else {
+                for (double[] row : strengths) {
+                    Arrays.fill(row, 0, n, 0.0);
+                }
+            }
+
+            for (int r = 0; r < ruleWeight.length; r++) {
+                if (ruleIndex != null && !ruleIndex.canFire(r, termSet, activeSlots)) {
+                    continue;
+                }
+                firingStrengthBlock(r, n, memberships, firing);
+                if (sugeno) {
+                    double consequentValue = ruleConsequentValue[r];
+                    for (int j = 0; j < n; j++) {
+                        double f = firing[j];
+                        if (f > 0) {
+                            weightedSums[j] += f * consequentValue;
+                            weightSums[j] += f;
+                        }
+                    }
+                } else {
+                    aggregateBlock(firing, n, strengths[ruleConsequent[r]]);
+                }
+            }
+
+            for (int j = 0; j < n; j++) {
+                if (sugeno) {
+                    out[blockStart + j] = weightSums[j] > 0 ? weightedSums[j] / weightSums[j] : 0.0;
+                } else {
+                    for (int s = 0; s < outputSets.length; s++) {
+                        recordStrengths[s] = strengths[s][j];
+                    }
+                    out[blockStart + j] = defuzzificationMethod.defuzzify(aggregatedSet);
+                }
+            }
+        }
+    }
+
+    private void fuzzifyBlock(double[][] columns, int blockStart, int n, double[] values,
+            double[][] memberships, boolean[] activeSlots, int[] setCandidates) {
+        for (int v = 0; v < inputNames.length; v++) {
+            double[] column = columns[v];
+            for (int j = 0; j < n; j++) {
+                values[j] = clamp(v, column[blockStart + j]);
+            }
+            SupportIndex index = supportIndex[v];
+            if (index != null) {
+                for (int s = setOffset[v]; s < setOffset[v + 1]; s++) {
+                    Arrays.fill(memberships[s], 0, n, 0.0);
+                    activeSlots[s] = false;
+                }
+                for (int j = 0; j < n; j++) {
+                    int found = index.findCandidates(values[j], setCandidates, 0);
+                    for (int k = 0; k < found; k++) {
+                        int s = setOffset[v] + setCandidates[k];
+                        double membership = inputSets[s].calculate(values[j]);
+                        if (membership > 0) {
+                            memberships[s][j] = membership;
+                            activeSlots[s] = true;
+                        }
+                    }
+                }
+                continue;
+            }
+            for (int s = setOffset[v]; s < setOffset[v + 1]; s++) {
+                double[] row = memberships[s];
+                kernels.calculate(inputSets[s], values, 0, n, row, 0);
+                boolean active = false;
+                for (int j = 0; j < n; j++) {
+                    double membership = row[j];
+                    row[j] = membership > 0 ? membership : 0.0;
+                    active |= membership > 0;
+                }
+                activeSlots[s] = active;
+            }
+        }
+    }
+
+    private void firingStrengthBlock(int rule, int n, double[][] memberships, double[] firing) {
+        int start = ruleStart[rule];
+        int end = ruleStart[rule + 1];
+        if (start == end) {
+            Arrays.fill(firing, 0, n, ruleWeight[rule]);
+            return;
+        }
+
+        System.arraycopy(memberships[termSet[start]], 0, firing, 0, n);
+        for (int t = start + 1; t < end; t++) {
+            double[] row = memberships[termSet[t]];
+            if (termAnd[t]) {
+                if (andOperator instanceof MinTNorm) {
+                    for (int j = 0; j < n; j++) {
+                        firing[j] = Math.min(firing[j], row[j]);
+                    }
+                } else {
+                    for (int j = 0; j < n; j++) {
+                        firing[j] = andOperator.compute(firing[j], row[j]);
+                    }
+                }
+            } else {
+                if (orOperator instanceof MaxSNorm) {
+                    for (int j = 0; j < n; j++) {
+                        firing[j] = Math.max(firing[j], row[j]);
+                    }
+                } else {
+                    for (int j = 0; j < n; j++) {
+                        firing[j] = orOperator.compute(firing[j], row[j]);
+                    }
+                }
+            }
+        }
+
+        double weight = ruleWeight[rule];
+        for (int j = 0; j < n; j++) {
+            firing[j] *= weight;
+        }
+    }
+
+    private static void aggregateBlock(double[] firing, int n, double[] strengths) {
+        for (int j = 0; j < n; j++) {
+            double firingStrength = firing[j];
+            if (firingStrength > 0) {
+                strengths[j] = Math.max(strengths[j], firingStrength);
+            }
+        }
+    }
+
+    /**
+     * Evaluates records [from, to) one at a time. Used for aggregation
+     * operators other than the maximum, which must see all firing strengths
+     * of a set at once and so cannot be folded rule by rule across a block.
+     */
+    private void evaluateRecords(double[][] columns, int from, int to, double[] out) {
+        PlanScratch work = newScratch();
+        double[] record = new double[inputNames.length];
+        for (int i = from; i < to; i++) {
+            for (int v = 0; v < record.length; v++) {
+                record[v] = columns[v][i];
+            }
+            out[i] = evaluate(work, record);
+        }
+    }
+
+    /**
+     * Fuzzifies one record into the scratch memberships and lists the slots
+     * with non-zero membership. Only slots listed by the previous call need
+     * to be cleared, and indexed variables evaluate only the sets whose
+     * support contains the input.
+     *
+     * @return number of active slots
+     */
+    private int fuzzify(double[] inputs, PlanScratch work) {
+        double[] memberships = work.memberships;
+        int[] activeSets = work.activeSets;
+        for (int i = 0; i < work.activeCount; i++) {
+            memberships[activeSets[i]] = 0.0;
+        }
+        work.activeCount = 0;
+
+        for (int v = 0; v < inputNames.length; v++) {
+            double x = clamp(v, inputs[v]);
+            SupportIndex index = supportIndex[v];
+            if (index == null) {
+                for (int s = setOffset[v]; s < setOffset[v + 1]; s++) {
+                    fuzzifySet(s, x, work);
+                }
+            } else {
+                int[] candidates = work.setCandidates;
+                int found = index.findCandidates(x, candidates, 0);
+                for (int k = 0; k < found; k++) {
+                    fuzzifySet(setOffset[v] + candidates[k], x, work);
+                }
+            }
+        }
+        return work.activeCount;
+    }
+
+    private void fuzzifySet(int slot, double x, PlanScratch work) {
+        double membership = inputSets[slot].calculate(x);
+        if (membership > 0) {
+            work.memberships[slot] = membership;
+            work.activeSets[work.activeCount++] = slot;
+        }
+    }
+
+    private double clamp(int variable, double value) {
+        double min = inputMin[variable];
+        double max = inputMax[variable];
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return (min + max) / 2.0;
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Writes the memberships of every set of one variable, including zeros.
+     *
+     * @param candidates scratch of at least one slot per input set
+     */
+    void fuzzifyVariable(int variable, double value, double[] memberships, int[] candidates) {
+        double x = clamp(variable, value);
+        SupportIndex index = supportIndex[variable];
+        if (index == null) {
+            for (int s = setOffset[variable]; s < setOffset[variable + 1]; s++) {
+                double membership = inputSets[s].calculate(x);
+                memberships[s] = membership > 0 ? membership : 0.0;
+            }
+            return;
+        }
+        Arrays.fill(memberships, setOffset[variable], setOffset[variable + 1], 0.0);
+        int found = index.findCandidates(x, candidates, 0);
+        for (int k = 0; k < found; k++) {
+            int s = setOffset[variable] + candidates[k];
+            double membership = inputSets[s].calculate(x);
+            if (membership > 0) {
+                memberships[s] = membership;
+            }
+        }
+    }
+
+    double firingStrength(int rule, double[] memberships) {
+        int start = ruleStart[rule];
+        int end = ruleStart[rule + 1];
+        if (start == end) {
+            return ruleWeight[rule];
+        }
+
+        double result = memberships[termSet[start]];
+        for (int t = start + 1; t < end; t++) {
+            if (result == 0.0 && shortCircuit && t >= andTail[rule]) {
+                return 0.0;
+            }
+            double membership = memberships[termSet[t]];
+            if (termAnd[t]) {
+                result = andOperator.compute(result, membership);
+            } else {
+                result = orOperator.compute(result, membership);
+            }
+        }
+        return result * ruleWeight[rule];
+    }
+
+    /**
+     * Applies rules to one record. When rules is null every rule is applied,
+     * otherwise only the first ruleCount ids in it. With max aggregation each
+     * firing strength is folded in as it is computed; otherwise the strengths
+     * are collected and each set is aggregated once, like the interpreted
+     * engine.
+     */
+    private void inferMamdani(double[] memberships, int[] rules, int ruleCount, double[] strengths,
+            StrengthBuffer buffer) {
+        if (buffer != null) {
+            buffer.clear();
+        }
+        for (int i = 0; i < ruleCount; i++) {
+            int r = rules == null ? i : rules[i];
+            double firingStrength = firingStrength(r, memberships);
+            if (firingStrength > 0) {
+                int set = ruleConsequent[r];
+                if (buffer != null) {
+                    buffer.add(set, firingStrength);
+                } else {
+                    strengths[set] = Math.max(strengths[set], firingStrength);
+                }
+            }
+        }
+        if (buffer != null) {
+            buffer.aggregateInto(strengths);
+        }
+    }
+
+    private double inferSugeno(double[] memberships, int[] rules, int ruleCount) {
+        double weightedSum = 0.0;
+        double weightSum = 0.0;
+        for (int i = 0; i < ruleCount; i++) {
+            int r = rules == null ? i : rules[i];
+            double firingStrength = firingStrength(r, memberships);
+            if (firingStrength > 0) {
+                weightedSum += firingStrength * ruleConsequentValue[r];
+                weightSum += firingStrength;
+            }
+        }
+        return weightSum > 0 ? weightedSum / weightSum : 0.0;
+    }
+
+    boolean isSugeno() {
+        return sugeno;
+    }
+
+    boolean isMaxAggregation() {
+        return maxAggregation;
+    }
+
+    int getSlotCount() {
+        return zeroSlot;
+    }
+
+    int getOutputSetCount() {
+        return outputSets.length;
+    }
+
+    int[] getVariableRuleStart() {
+        return variableRuleStart;
+    }
+
+    int[] getVariableRules() {
+        return variableRules;
+    }
+
+    int[] getConsequentRuleStart() {
+        return consequentRuleStart;
+    }
+
+    int[] getConsequentRules() {
+        return consequentRules;
+    }
+
+    int getConsequent(int rule) {
+        return ruleConsequent[rule];
+    }
+
+    double getConsequentValue(int rule) {
+        return ruleConsequentValue[rule];
+    }
+
+    int getSetOffset(int variable) {
+        return setOffset[variable];
+    }
+
+    MembershipFunction getInputSet(int slot) {
+        return inputSets[slot];
+    }
+
+    int getRuleStart(int rule) {
+        return ruleStart[rule];
+    }
+
+    int getTermSet(int term) {
+        return termSet[term];
+    }
+
+    boolean isTermAnd(int term) {
+        return termAnd[term];
+    }
+
+    double getRuleWeight(int rule) {
+        return ruleWeight[rule];
+    }
+
+    TNorm getAndOperator() {
+        return andOperator;
+    }
+
+    SNorm getOrOperator() {
+        return orOperator;
+    }
+
+    ImplicationOperator getImplicationOperator() {
+        return implicationOperator;
+    }
+
+    AggregationOperator getAggregationOperator() {
+        return aggregationOperator;
+    }
+
+    DefuzzificationMethod getDefuzzificationMethod() {
+        return defuzzificationMethod;
+    }
+
+    OutputSampleCache getSampleCache() {
+        return sampleCache;
+    }
+
+    /**
+     * Generates, compiles and loads a class that evaluates this plan with
+     * its operators, membership functions and rules written out as
+     * straight-line code.
+     *
+     * @return evaluator with outputs identical to {@link #evaluate(double...)}
+     * @throws IllegalStateException if no Java compiler is available at run
+     *                               time or the generated code fails to compile
+     */
+    public GeneratedSystem generate() {
+        return new CodeGenerator(this).generate();
+    }
+
+    double defuzzify(MamdaniAggregatedSet aggregatedSet) {
+        return defuzzificationMethod.defuzzify(aggregatedSet);
+    }
+
+    /**
+     * Gets the input variable names in the order expected by
+     * {@link #evaluate(double...)}.
+     */
+    public String[] getInputNames() {
+        return inputNames.clone();
+    }
+
+    /**
+     * Gets the position of an input variable, or -1 if it is not an input.
+     */
+    public int indexOfInput(String name) {
+        for (int v = 0; v < inputNames.length; v++) {
+            if (inputNames[v].equals(name)) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the {@link FuzzyLogicSystem#getVersion()} this plan was compiled from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public double getInputMinDomain(int input) {
+        return inputMin[input];
+    }
+
+    public double getInputMaxDomain(int input) {
+        return inputMax[input];
+    }
+
+    public double getOutputMinDomain() {
+        return outputMin;
+    }
+
+    public double getOutputMaxDomain() {
+        return outputMax;
+    }
+
+    public int getInputCount() {
+        return inputNames.length;
+    }
+
+    public int getRuleCount() {
+        return ruleWeight.length;
+    }
+}
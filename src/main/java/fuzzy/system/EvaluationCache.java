@@ -0,0 +1,250 @@
+package fuzzy.system;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of evaluation results in front of a {@link FuzzyLogicSystem}.
+ * Each input is quantised to a fixed step (e.g. 0.1 °C), the quantised levels
+ * are packed into one primitive long key, and the system is evaluated at the
+ * quantised point, so every key maps to exactly one result.
+ *
+ * Entries live in independently locked segments, each organised as small
+ * least-recently-used buckets, so concurrent callers never contend on a single
+ * lock. Results are tied to the compiled plan from
+ * {@link FuzzyLogicSystem#snapshot()}: when the rule base, operators or
+ * defuzzification method change, stale entries are dropped automatically.
+ */
+public class EvaluationCache {
+    private static final int WAYS = 8; // entries per bucket
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private final FuzzyLogicSystem system;
+    private final String[] inputNames;
+    private final double[] quanta;
+    private final int[] shifts;
+    private final long[] masks;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param system   system to evaluate on a miss
+     * @param quanta   quantisation step per input variable, in the order the
+     *                 variables were added to the system
+     * @param capacity maximum number of cached results
+     */
+    public EvaluationCache(FuzzyLogicSystem system, double[] quanta, int capacity) {
+        CompiledSystem plan = system.snapshot();
+        int inputs = plan.getInputCount();
+        if (quanta.length != inputs) {
+            throw new IllegalArgumentException("Expected a quantisation step for each of " + inputs + " inputs");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.system = system;
+        this.inputNames = plan.getInputNames();
+        this.quanta = quanta.clone();
+        this.shifts = new int[inputs];
+        this.masks = new long[inputs];
+
+        int totalBits = 0;
+        for (int v = 0; v < inputs; v++) {
+            if (!(quanta[v] > 0)) {
+                throw new IllegalArgumentException("Quantisation steps must be positive");
+            }
+            double range = plan.getInputMaxDomain(v) - plan.getInputMinDomain(v);
+            long levels = (long) Math.ceil(range / quanta[v]);
+            int bits = 64 - Long.numberOfLeadingZeros(levels);
+            shifts[v] = totalBits;
+            masks[v] = bits == 64 ? -1L : (1L << bits) - 1;
+            totalBits += bits;
+        }
+        if (totalBits > 64) {
+            throw new IllegalArgumentException("Quantised inputs need " + totalBits
+                    + " bits; use coarser steps to fit a 64-bit key");
+        }
+
+        int bucketsPerSegment = Math.max(1, (capacity + SEGMENTS * WAYS - 1) / (SEGMENTS * WAYS));
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(bucketsPerSegment);
+        }
+    }
+
+    /**
+     * Evaluates the system at the quantised inputs, using a cached result when
+     * available.
+     *
+     * @param inputs crisp input values, in the order the variables were added
+     * @return crisp output for the quantised inputs
+     */
+    public double evaluate(double... inputs) {
+        CompiledSystem plan = system.snapshot();
+        if (inputs.length != quanta.length) {
+            throw new IllegalArgumentException("Expected " + quanta.length + " inputs but got " + inputs.length);
+        }
+
+        long key = 0;
+        for (int v = 0; v < quanta.length; v++) {
+            key |= level(plan, v, inputs[v]) << shifts[v];
+        }
+        long hash = key * 0x9E3779B97F4A7C15L;
+        Segment segment = segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+        long version = plan.getVersion();
+
+        synchronized (segment) {
+            int slot = segment.find(key, hash, version);
+            if (slot >= 0) {
+                hits.increment();
+                return segment.values[slot];
+            }
+        }
+
+        misses.increment();
+        double[] quantised = new double[quanta.length];
+        for (int v = 0; v < quanta.length; v++) {
+            long level = (key >>> shifts[v]) & masks[v];
+            quantised[v] = plan.getInputMinDomain(v) + level * quanta[v];
+        }
+        double result = plan.evaluate(quantised);
+
+        synchronized (segment) {
+            if (segment.put(key, hash, version, result)) {
+                evictions.increment();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the system at the quantised inputs given by variable name.
+     * Every input variable must be present.
+     */
+    public double evaluate(Map<String, Double> crispInputs) {
+        double[] inputs = new double[inputNames.length];
+        for (int v = 0; v < inputNames.length; v++) {
+            Double value = crispInputs.get(inputNames[v]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing input: " + inputNames[v]);
+            }
+            inputs[v] = value;
+        }
+        return evaluate(inputs);
+    }
+
+    private long level(CompiledSystem plan, int input, double value) {
+        double min = plan.getInputMinDomain(input);
+        double max = plan.getInputMaxDomain(input);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            value = (min + max) / 2.0;
+        }
+        value = Math.max(min, Math.min(max, value));
+        return Math.round((value - min) / quanta[input]);
+    }
+
+    /**
+     * Removes all cached results. Counters are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int getCapacity() {
+        return SEGMENTS * segments[0].keys.length;
+    }
+
+    /**
+     * One lock stripe: a set-associative table whose buckets evict their
+     * least recently used entry.
+     */
+    private static final class Segment {
+        private final long[] keys;
+        private final double[] values;
+        private final long[] lastUse; // 0 marks an empty slot
+        private final int buckets;
+        private long clock;
+        private long version = -1;
+
+        Segment(int buckets) {
+            this.buckets = buckets;
+            this.keys = new long[buckets * WAYS];
+            this.values = new double[buckets * WAYS];
+            this.lastUse = new long[buckets * WAYS];
+        }
+
+        int find(long key, long hash, long currentVersion) {
+            if (currentVersion != version) {
+                if (currentVersion > version) {
+                    clear();
+                    version = currentVersion;
+                }
+                return -1;
+            }
+            int start = bucketStart(hash);
+            for (int slot = start; slot < start + WAYS; slot++) {
+                if (lastUse[slot] != 0 && keys[slot] == key) {
+                    lastUse[slot] = ++clock;
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Stores a result computed for the given version.
+         *
+         * @return true if another entry was evicted
+         */
+        boolean put(long key, long hash, long resultVersion, double value) {
+            if (version != resultVersion) {
+                return false; // the plan changed while the result was computed
+            }
+            int start = bucketStart(hash);
+            int victim = start;
+            for (int slot = start; slot < start + WAYS; slot++) {
+                if (lastUse[slot] != 0 && keys[slot] == key) {
+                    victim = slot;
+                    break;
+                }
+                if (lastUse[slot] < lastUse[victim]) {
+                    victim = slot;
+                }
+            }
+            boolean evicted = lastUse[victim] != 0 && keys[victim] != key;
+            keys[victim] = key;
+            values[victim] = value;
+            lastUse[victim] = ++clock;
+            return evicted;
+        }
+
+        private int bucketStart(long hash) {
+            return (int) ((hash >>> 20) % buckets) * WAYS;
+        }
+
+        void clear() {
+            Arrays.fill(lastUse, 0L);
+            clock = 0;
+        }
+    }
+}
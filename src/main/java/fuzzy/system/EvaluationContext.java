@@ -0,0 +1,30 @@
+package fuzzy.system;
+
+/**
+ * Reusable working buffers for evaluating compiled plans without allocating.
+ *
+ * A context sizes its buffers for the plan it was last used with and
+ * reallocates them only when used with a different plan, for example after
+ * {@link FuzzyLogicSystem#snapshot()} recompiles. Steady-state evaluation
+ * through {@link CompiledSystem#evaluate(EvaluationContext, double[])} or
+ * {@link FuzzyLogicSystem#evaluate(EvaluationContext, double...)} then
+ * allocates nothing.
+ *
+ * A context must not be used by two threads at once; keep one per thread or
+ * take one from a pool for each call.
+ */
+public final class EvaluationContext {
+    private CompiledSystem plan;
+    private PlanScratch scratch;
+
+    /**
+     * Gets the buffers for a plan, allocating them on first use with it.
+     */
+    PlanScratch scratchFor(CompiledSystem plan) {
+        if (this.plan != plan) {
+            this.scratch = plan.newScratch();
+            this.plan = plan;
+        }
+        return scratch;
+    }
+}
@@ -2,29 +2,42 @@ package fuzzy.system;
 
 import fuzzy.defuzzification.*;
 import fuzzy.inference.*;
+import fuzzy.metrics.MetricsRegistry;
 import fuzzy.operators.*;
 import fuzzy.rules.*;
 import fuzzy.variables.*;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Main fuzzy logic system that orchestrates the complete evaluation pipeline:
  * fuzzify → infer → aggregate → defuzzify → crisp output
+ * 
+ * Each evaluation reads one rule base snapshot and one inference engine and
+ * defuzzification method, so it is consistent even while rules or operators
+ * are being changed from another thread.
  */
 public class FuzzyLogicSystem {
     private final Map<String, LinguisticVariable> inputVariables;
     private final LinguisticVariable outputVariable;
     private final RuleBase ruleBase;
-    private InferenceEngine inferenceEngine;
-    private DefuzzificationMethod defuzzificationMethod;
-    private TNorm andOperator;
-    private SNorm orOperator;
+    private final AtomicLong configVersion;
+    private volatile InferenceEngine inferenceEngine;
+    private volatile DefuzzificationMethod defuzzificationMethod;
+    private volatile TNorm andOperator;
+    private volatile SNorm orOperator;
+    private volatile CompiledSystem snapshot;
+    private final OutputDefuzzifier outputDefuzzifier;
+    private volatile MetricsRegistry metrics; // null when metrics are disabled
+    private final ThreadLocal<double[]> firingBuffers = ThreadLocal.withInitial(() -> new double[0]);
 
     public FuzzyLogicSystem(LinguisticVariable outputVariable) {
         this.inputVariables = new LinkedHashMap<>();
         this.outputVariable = outputVariable;
         this.ruleBase = new RuleBase();
+        this.configVersion = new AtomicLong();
+        this.outputDefuzzifier = new OutputDefuzzifier(outputVariable);
 
         setDefaultOperators();
     }
@@ -47,12 +60,20 @@ public class FuzzyLogicSystem {
             throw new IllegalArgumentException("Input variable cannot be null");
         }
         inputVariables.put(variable.getName(), variable);
+        configVersion.incrementAndGet();
     }
 
     public LinguisticVariable getInputVariable(String name) {
         return inputVariables.get(name);
     }
 
+    /**
+     * Gets all input variables in the order they were added.
+     */
+    public Collection<LinguisticVariable> getInputVariables() {
+        return Collections.unmodifiableCollection(inputVariables.values());
+    }
+
     public LinguisticVariable getOutputVariable() {
         return outputVariable;
     }
@@ -63,10 +84,20 @@ public class FuzzyLogicSystem {
 
     public void setInferenceEngine(InferenceEngine engine) {
         this.inferenceEngine = engine;
+        configVersion.incrementAndGet();
+    }
+
+    public InferenceEngine getInferenceEngine() {
+        return inferenceEngine;
+    }
+
+    public DefuzzificationMethod getDefuzzificationMethod() {
+        return defuzzificationMethod;
     }
 
     public void setDefuzzificationMethod(DefuzzificationMethod method) {
         this.defuzzificationMethod = method;
+        configVersion.incrementAndGet();
     }
 
     public void setAndOperator(TNorm operator) {
@@ -92,6 +123,7 @@ public class FuzzyLogicSystem {
                     andOperator, orOperator,
                     consequentValues);
         }
+        configVersion.incrementAndGet();
     }
 
     private Map<String, Double> extractConsequentValues(SugenoInference sugeno) {
@@ -107,6 +139,16 @@ public class FuzzyLogicSystem {
     public void setupSugenoInference(Map<String, Double> consequentValues) {
         this.inferenceEngine = new SugenoInference(
                 andOperator, orOperator, consequentValues);
+        configVersion.incrementAndGet();
+    }
+
+    /**
+     * Gets a version number that increases whenever the rule base, an input
+     * variable, the inference engine, an operator or the defuzzification
+     * method is changed through this system or its {@link RuleBase}.
+     */
+    public long getVersion() {
+        return ruleBase.getVersion() + configVersion.get();
     }
 
     /**
@@ -116,10 +158,126 @@ public class FuzzyLogicSystem {
      * @return crisp output value
      */
     public double evaluate(Map<String, Double> crispInputs) {
+        InferenceEngine engine = inferenceEngine;
+        DefuzzificationMethod method = defuzzificationMethod;
+        MetricsRegistry registry = metrics;
+        if (registry != null) {
+            return evaluateWithMetrics(crispInputs, engine, method, registry);
+        }
         Map<String, Map<String, Double>> fuzzifiedInputs = fuzzify(crispInputs);
-        Map<String, Double> inferredOutput = inferenceEngine.infer(
-                ruleBase.getEnabledRules(), fuzzifiedInputs, outputVariable);
-        return defuzzify(inferredOutput);
+        Map<String, Double> inferredOutput = engine.infer(
+                ruleBase.snapshot().getEnabledRules(), fuzzifiedInputs, outputVariable);
+        return defuzzify(inferredOutput, engine, method);
+    }
+
+    /**
+     * Evaluates one record with several defuzzification methods, running
+     * fuzzification, inference and aggregation once. The aggregated set is
+     * sampled once into an {@link AggregatedCurve} that every method reads,
+     * so comparing methods costs little more than evaluating with one.
+     * The system's own defuzzification method is not used.
+     *
+     * @param crispInputs map of input variable names to crisp values
+     * @return one crisp output per method
+     */
+    public double[] evaluateAll(Map<String, Double> crispInputs, DefuzzificationMethod... methods) {
+        InferenceEngine engine = inferenceEngine;
+        Map<String, Map<String, Double>> fuzzifiedInputs = fuzzify(crispInputs);
+        Map<String, Double> inferredOutput = engine.infer(
+                ruleBase.snapshot().getEnabledRules(), fuzzifiedInputs, outputVariable);
+        return outputDefuzzifier.defuzzifyAll(inferredOutput, engine, methods);
+    }
+
+    private double evaluateWithMetrics(Map<String, Double> crispInputs, InferenceEngine engine,
+            DefuzzificationMethod method, MetricsRegistry registry) {
+        RuleBaseSnapshot snapshot = ruleBase.snapshot();
+        List<Rule> rules = snapshot.getEnabledRules();
+        double[] firingStrengths = firingBuffers.get();
+        if (firingStrengths.length < rules.size()) {
+            firingStrengths = new double[rules.size()];
+            firingBuffers.set(firingStrengths);
+        }
+
+        long start = System.nanoTime();
+        Map<String, Map<String, Double>> fuzzifiedInputs = fuzzify(crispInputs);
+        long fuzzified = System.nanoTime();
+        Map<String, Double> inferredOutput = engine.infer(rules, fuzzifiedInputs, outputVariable, firingStrengths);
+        long inferred = System.nanoTime();
+        double result = defuzzify(inferredOutput, engine, method);
+        long end = System.nanoTime();
+
+        registry.recordEvaluation(fuzzified - start, inferred - fuzzified, end - inferred, snapshot, firingStrengths);
+        return result;
+    }
+
+    /**
+     * Attaches a metrics registry that records every
+     * {@link #evaluate(Map)}, or detaches it when null.
+     */
+    public void setMetrics(MetricsRegistry registry) {
+        this.metrics = registry;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Freezes the current variables, rule base and operators into an immutable,
+     * index-based plan. Later changes to this system do not affect the plan.
+     *
+     * @return compiled evaluation plan
+     * @throws IllegalStateException if the inference engine cannot be compiled
+     */
+    public CompiledSystem compile() {
+        long version = getVersion();
+        return new CompiledSystem(version, inputVariables.values(), outputVariable,
+                ruleBase.snapshot().getEnabledRules(), inferenceEngine, defuzzificationMethod);
+    }
+
+    /**
+     * Gets a compiled plan for the current configuration, reusing the previous
+     * plan while {@link #getVersion()} is unchanged. Changes made directly to
+     * variables or rule objects are not tracked; call {@link #compile()} after
+     * such changes.
+     * 
+     * @return compiled evaluation plan
+     * @throws IllegalStateException if the inference engine cannot be compiled
+     */
+    public CompiledSystem snapshot() {
+        CompiledSystem current = snapshot;
+        if (current == null || current.getVersion() != getVersion()) {
+            current = compile();
+            snapshot = current;
+        }
+        return current;
+    }
+
+    /**
+     * Evaluates one record with a plan compiled from the current
+     * configuration, using the buffers of a caller-owned context. In steady
+     * state, while the configuration is unchanged, the call allocates nothing.
+     *
+     * @param context working buffers, not shared with a concurrent call
+     * @param inputs  crisp input values, one per input variable in the order
+     *                the variables were added
+     * @return crisp output value
+     * @throws IllegalStateException if the inference engine cannot be compiled
+     */
+    public double evaluate(EvaluationContext context, double... inputs) {
+        return snapshot().evaluate(context, inputs);
+    }
+
+    /**
+     * Evaluates many records stored column by column, using a plan compiled
+     * from the current configuration.
+     * 
+     * @param columns one column of crisp values per input variable, in the
+     *                order the variables were added
+     * @param out     receives one crisp output per record
+     */
+    public void evaluateBatch(double[][] columns, double[] out) {
+        snapshot().evaluateBatch(columns, out);
     }
 
     /**
@@ -129,6 +287,11 @@ public class FuzzyLogicSystem {
      * @return map of variable names to fuzzy set names to membership degrees
      */
     public Map<String, Map<String, Double>> fuzzify(Map<String, Double> crispInputs) {
+        return fuzzify(inputVariables, crispInputs);
+    }
+
+    static Map<String, Map<String, Double>> fuzzify(Map<String, LinguisticVariable> inputVariables,
+            Map<String, Double> crispInputs) {
         Map<String, Map<String, Double>> fuzzified = new HashMap<>();
 
         for (Map.Entry<String, Double> entry : crispInputs.entrySet()) {
@@ -140,16 +303,7 @@ public class FuzzyLogicSystem {
             }
 
             double crispValue = variable.validateInput(entry.getValue());
-            Map<String, Double> memberships = new HashMap<>();
-
-            for (FuzzySet fuzzySet : variable.getAllFuzzySets()) {
-                double membership = fuzzySet.getMembership(crispValue);
-                if (membership > 0) {
-                    memberships.put(fuzzySet.getName(), membership);
-                }
-            }
-
-            fuzzified.put(varName, memberships);
+            fuzzified.put(varName, variable.fuzzify(crispValue));
         }
 
         return fuzzified;
@@ -163,29 +317,9 @@ public class FuzzyLogicSystem {
      *                       or crisp values (Sugeno)
      * @return crisp output value
      */
-    private double defuzzify(Map<String, Double> inferredOutput) {
-        if (inferenceEngine instanceof SugenoInference) {
-            return inferredOutput.getOrDefault("output", 0.0);
-        }
-
-        return defuzzificationMethod.defuzzify(
-                x -> {
-                    double maxMu = 0.0;
-                    for (Map.Entry<String, Double> entry : inferredOutput.entrySet()) {
-                        FuzzySet fuzzySet = outputVariable.getFuzzySet(entry.getKey());
-                        if (fuzzySet != null) {
-                            double mu = fuzzySet.getMembership(x);
-                            if (inferenceEngine instanceof MamdaniInference) {
-                                MamdaniInference mamdani = (MamdaniInference) inferenceEngine;
-                                mu = mamdani.getImplicationOperator().apply(entry.getValue(), mu);
-                            }
-                            maxMu = Math.max(maxMu, mu);
-                        }
-                    }
-                    return maxMu;
-                },
-                outputVariable.getMinDomain(),
-                outputVariable.getMaxDomain());
+    private double defuzzify(Map<String, Double> inferredOutput, InferenceEngine engine,
+            DefuzzificationMethod method) {
+        return outputDefuzzifier.defuzzify(inferredOutput, engine, method);
     }
 
     /**
@@ -200,6 +334,6 @@ public class FuzzyLogicSystem {
      */
     public Map<String, Double> getInferenceResults(Map<String, Double> crispInputs) {
         Map<String, Map<String, Double>> fuzzifiedInputs = fuzzify(crispInputs);
-        return inferenceEngine.infer(ruleBase.getEnabledRules(), fuzzifiedInputs, outputVariable);
+        return inferenceEngine.infer(ruleBase.snapshot().getEnabledRules(), fuzzifiedInputs, outputVariable);
     }
 }
@@ -0,0 +1,107 @@
+package fuzzy.system;
+
+import fuzzy.defuzzification.MamdaniAggregatedSet;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.operators.SNorm;
+import fuzzy.operators.TNorm;
+
+import java.util.Arrays;
+
+/**
+ * Evaluator generated at run time for one {@link CompiledSystem} by
+ * {@link CompiledSystem#generate()}.
+ *
+ * The generated subclass writes out fuzzification, every rule and, for
+ * sampled centroid defuzzification, the centroid loop as straight-line code.
+ * Membership functions and operators of the standard library classes are
+ * inlined with their parameters as constants, so the JIT sees one monomorphic
+ * method per rule base. Other functions and operators are called through the
+ * protected fields below. Outputs are identical to the plan's.
+ *
+ * The protected members exist for the generated subclass and are not meant
+ * to be used otherwise. A generated system is safe to share between threads.
+ */
+public abstract class GeneratedSystem {
+    private final CompiledSystem plan;
+    private final ThreadLocal<Buffers> buffers;
+
+    protected final MembershipFunction[] inputSets;
+    protected final TNorm andOperator;
+    protected final SNorm orOperator;
+    protected final double[][] sampleRows; // output set memberships at the centroid samples, or null
+
+    protected GeneratedSystem(CompiledSystem plan, int samples) {
+        this.plan = plan;
+        this.inputSets = new MembershipFunction[plan.getSlotCount()];
+        for (int slot = 0; slot < inputSets.length; slot++) {
+            inputSets[slot] = plan.getInputSet(slot);
+        }
+        this.andOperator = plan.getAndOperator();
+        this.orOperator = plan.getOrOperator();
+        this.sampleRows = samples > 0 ? plan.getSampleCache().getRows(samples) : null;
+        this.buffers = ThreadLocal.withInitial(Buffers::new);
+    }
+
+    /**
+     * Evaluates one record.
+     *
+     * @param inputs crisp input values, ordered as
+     *               {@link CompiledSystem#getInputNames()}
+     * @return crisp output value
+     */
+    public final double evaluate(double... inputs) {
+        if (inputs.length != plan.getInputCount()) {
+            throw new IllegalArgumentException("Expected " + plan.getInputCount() + " inputs but got "
+                    + inputs.length);
+        }
+        Buffers work = buffers.get();
+        Arrays.fill(work.strengths, 0.0);
+        infer(inputs, work.memberships, work.strengths, work.ruleStrengths);
+        if (work.strengthBuffer != null) {
+            for (int set = 0; set < work.strengths.length; set++) {
+                work.strengths[set] = work.strengthBuffer.aggregateRules(set, work.ruleStrengths);
+            }
+        }
+        if (plan.isSugeno()) {
+            return work.strengths[1] > 0 ? work.strengths[0] / work.strengths[1] : 0.0;
+        }
+        return defuzzify(work.strengths, work.aggregatedSet);
+    }
+
+    /**
+     * Fuzzifies the inputs and applies every rule.
+     *
+     * @param memberships   receives one membership per input set
+     * @param strengths     zeroed on entry; receives the aggregated strength
+     *                      of each output set under max aggregation, or the
+     *                      weighted sum and the sum of firing strengths
+     *                      (Sugeno)
+     * @param ruleStrengths receives the firing strength of every rule under
+     *                      other aggregation operators, which are applied
+     *                      afterwards once per output set
+     */
+    protected abstract void infer(double[] inputs, double[] memberships, double[] strengths,
+            double[] ruleStrengths);
+
+    /**
+     * Defuzzifies aggregated Mamdani set strengths. Generated code overrides
+     * this for sampled centroid defuzzification.
+     *
+     * @param aggregatedSet output set defined by strengths
+     */
+    protected double defuzzify(double[] strengths, MamdaniAggregatedSet aggregatedSet) {
+        return plan.defuzzify(aggregatedSet);
+    }
+
+    public CompiledSystem getPlan() {
+        return plan;
+    }
+
+    private final class Buffers {
+        final double[] memberships = new double[plan.getSlotCount()];
+        final double[] strengths = new double[plan.isSugeno() ? 2 : plan.getOutputSetCount()];
+        final MamdaniAggregatedSet aggregatedSet = plan.newAggregatedSet(strengths);
+        final StrengthBuffer strengthBuffer = plan.newStrengthBuffer();
+        final double[] ruleStrengths = new double[strengthBuffer == null ? 0 : plan.getRuleCount()];
+    }
+}
@@ -0,0 +1,208 @@
+package fuzzy.system;
+
+import fuzzy.defuzzification.MamdaniAggregatedSet;
+
+import java.util.Arrays;
+
+/**
+ * Stateful evaluator of a {@link CompiledSystem} for inputs that change one
+ * at a time, such as vitals pushed by a bedside monitor.
+ *
+ * The evaluator keeps the memberships, rule firing strengths and output set
+ * strengths of the current inputs. {@link #update(int, double)} fuzzifies only
+ * the changed variable, re-fires only the rules that reference it and
+ * re-aggregates only the output sets whose rules changed, then defuzzifies.
+ * Sugeno plans re-sum the stored firing strengths without re-firing any rule.
+ * Results are identical to {@link CompiledSystem#evaluate(double...)} and to
+ * {@link FuzzyLogicSystem#evaluate(java.util.Map)} on the same inputs: with
+ * an aggregation operator other than the maximum, a dirty set is
+ * re-aggregated with one call over the strengths of all its rules.
+ *
+ * An evaluator is not thread-safe; use one per patient or stream.
+ */
+public final class IncrementalEvaluator {
+    private final CompiledSystem plan;
+    private final double[] inputs;
+    private final double[] memberships;
+    private final int[] candidates;
+    private final double[] ruleStrengths;
+    private final double[] setStrengths; // Mamdani only
+    private final boolean[] dirtySets;
+    private final int[] dirtyList;
+    private final MamdaniAggregatedSet aggregatedSet;
+    private final StrengthBuffer strengthBuffer; // null for max aggregation and Sugeno plans
+    private double output;
+
+    IncrementalEvaluator(CompiledSystem plan) {
+        this.plan = plan;
+        this.inputs = new double[plan.getInputCount()];
+        this.memberships = new double[plan.getSlotCount() + 1];
+        this.candidates = new int[plan.getSlotCount()];
+        this.ruleStrengths = new double[plan.getRuleCount()];
+        this.setStrengths = new double[plan.getOutputSetCount()];
+        this.dirtySets = new boolean[setStrengths.length];
+        this.dirtyList = new int[setStrengths.length];
+        this.aggregatedSet = plan.newAggregatedSet(setStrengths);
+        this.strengthBuffer = plan.newStrengthBuffer();
+
+        double[] centre = new double[inputs.length];
+        Arrays.fill(centre, Double.NaN);
+        evaluate(centre);
+    }
+
+    /**
+     * Replaces every input and recomputes the output from scratch.
+     *
+     * @param inputs crisp input values, ordered as
+     *               {@link CompiledSystem#getInputNames()}
+     * @return crisp output value
+     */
+    public double evaluate(double... inputs) {
+        if (inputs.length != this.inputs.length) {
+            throw new IllegalArgumentException("Expected " + this.inputs.length + " inputs but got "
+                    + inputs.length);
+        }
+        for (int v = 0; v < inputs.length; v++) {
+            this.inputs[v] = inputs[v];
+            plan.fuzzifyVariable(v, inputs[v], memberships, candidates);
+        }
+        for (int r = 0; r < ruleStrengths.length; r++) {
+            ruleStrengths[r] = positive(plan.firingStrength(r, memberships));
+        }
+        if (plan.isSugeno()) {
+            output = sugenoOutput();
+        } else {
+            for (int set = 0; set < setStrengths.length; set++) {
+                setStrengths[set] = aggregateSet(set);
+            }
+            output = plan.defuzzify(aggregatedSet);
+        }
+        return output;
+    }
+
+    /**
+     * Changes one input and re-evaluates only the rules that reference it.
+     *
+     * @param input position of the input, as in
+     *              {@link CompiledSystem#getInputNames()}
+     * @param value new crisp value
+     * @return crisp output value
+     */
+    public double update(int input, double value) {
+        if (input < 0 || input >= inputs.length) {
+            throw new IndexOutOfBoundsException("Invalid input index: " + input);
+        }
+        if (Double.compare(inputs[input], value) == 0) {
+            return output;
+        }
+        inputs[input] = value;
+        plan.fuzzifyVariable(input, value, memberships, candidates);
+
+        int[] ruleStart = plan.getVariableRuleStart();
+        int[] rules = plan.getVariableRules();
+        boolean sugeno = plan.isSugeno();
+        boolean maxAggregation = plan.isMaxAggregation();
+        boolean changed = false;
+        int dirtyCount = 0;
+        for (int k = ruleStart[input]; k < ruleStart[input + 1]; k++) {
+            int r = rules[k];
+            double previous = ruleStrengths[r];
+            double strength = positive(plan.firingStrength(r, memberships));
+            if (strength == previous) {
+                continue;
+            }
+            ruleStrengths[r] = strength;
+            changed = true;
+            if (sugeno) {
+                continue;
+            }
+            int set = plan.getConsequent(r);
+            if (dirtySets[set]) {
+                continue;
+            }
+            if (maxAggregation && strength > setStrengths[set]) {
+                setStrengths[set] = strength;
+            } else if (!maxAggregation || previous == setStrengths[set]) {
+                dirtySets[set] = true;
+                dirtyList[dirtyCount++] = set;
+            }
+        }
+        if (!changed) {
+            return output;
+        }
+
+        if (sugeno) {
+            output = sugenoOutput();
+            return output;
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            int set = dirtyList[i];
+            setStrengths[set] = aggregateSet(set);
+            dirtySets[set] = false;
+        }
+        output = plan.defuzzify(aggregatedSet);
+        return output;
+    }
+
+    /**
+     * Changes one input by name.
+     *
+     * @throws IllegalArgumentException if the plan has no input with that name
+     */
+    public double update(String input, double value) {
+        int index = plan.indexOfInput(input);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown input variable: " + input);
+        }
+        return update(index, value);
+    }
+
+    /**
+     * Gets the output for the current inputs.
+     */
+    public double getOutput() {
+        return output;
+    }
+
+    public double getInput(int input) {
+        return inputs[input];
+    }
+
+    public CompiledSystem getPlan() {
+        return plan;
+    }
+
+    private static double positive(double strength) {
+        return strength > 0 ? strength : 0.0;
+    }
+
+    /**
+     * Aggregates the firing strengths of the rules concluding a set in rule
+     * order.
+     */
+    private double aggregateSet(int set) {
+        if (strengthBuffer != null) {
+            return strengthBuffer.aggregateRules(set, ruleStrengths);
+        }
+        int[] ruleStart = plan.getConsequentRuleStart();
+        int[] rules = plan.getConsequentRules();
+        double strength = 0.0;
+        for (int k = ruleStart[set]; k < ruleStart[set + 1]; k++) {
+            strength = Math.max(strength, ruleStrengths[rules[k]]);
+        }
+        return strength;
+    }
+
+    private double sugenoOutput() {
+        double weightedSum = 0.0;
+        double weightSum = 0.0;
+        for (int r = 0; r < ruleStrengths.length; r++) {
+            double firingStrength = ruleStrengths[r];
+            if (firingStrength > 0) {
+                weightedSum += firingStrength * plan.getConsequentValue(r);
+                weightSum += firingStrength;
+            }
+        }
+        return weightSum > 0 ? weightedSum / weightSum : 0.0;
+    }
+}
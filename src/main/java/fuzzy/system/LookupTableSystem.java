@@ -0,0 +1,187 @@
+package fuzzy.system;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Approximates a compiled system by a precomputed table over a regular grid
+ * of its input domains. Queries are answered by multilinear interpolation
+ * between the 2^n surrounding grid points, trading a bounded error (see
+ * {@link #measureMaxError(int, long)}) for a constant, very small cost.
+ */
+public class LookupTableSystem {
+    private static final int PARALLEL_THRESHOLD = 65_536; // grid points
+    private static final int BUILD_CHUNK = 4096; // grid points evaluated per batch
+
+    private final CompiledSystem plan;
+    private final int[] gridPoints;
+    private final int[] strides;
+    private final double[] minDomain;
+    private final double[] maxDomain;
+    private final double[] spacing;
+    private final double[] table;
+    private final ThreadLocal<double[]> fractionBuffers; // per input, reused between queries
+
+    /**
+     * Builds a table with the same number of grid points along every input.
+     */
+    public LookupTableSystem(CompiledSystem plan, int pointsPerInput) {
+        this(plan, uniformGrid(plan.getInputCount(), pointsPerInput));
+    }
+
+    /**
+     * Builds a table with a given number of grid points along each input.
+     * Large grids are evaluated in parallel.
+     * 
+     * @param plan       compiled system to tabulate
+     * @param gridPoints number of grid points per input (at least 2), ordered
+     *                   as {@link CompiledSystem#getInputNames()}
+     */
+    public LookupTableSystem(CompiledSystem plan, int[] gridPoints) {
+        int inputs = plan.getInputCount();
+        if (gridPoints.length != inputs) {
+            throw new IllegalArgumentException("Expected grid points for " + inputs + " inputs");
+        }
+        this.plan = plan;
+        this.gridPoints = gridPoints.clone();
+        this.strides = new int[inputs];
+        this.minDomain = new double[inputs];
+        this.maxDomain = new double[inputs];
+        this.spacing = new double[inputs];
+
+        long size = 1;
+        for (int d = inputs - 1; d >= 0; d--) {
+            if (gridPoints[d] < 2) {
+                throw new IllegalArgumentException("Each input needs at least 2 grid points");
+            }
+            strides[d] = (int) size;
+            size *= gridPoints[d];
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Lookup table is too large");
+            }
+            minDomain[d] = plan.getInputMinDomain(d);
+            maxDomain[d] = plan.getInputMaxDomain(d);
+            spacing[d] = (maxDomain[d] - minDomain[d]) / (gridPoints[d] - 1);
+        }
+        this.table = new double[(int) size];
+        this.fractionBuffers = ThreadLocal.withInitial(() -> new double[inputs]);
+
+        int chunks = (table.length + BUILD_CHUNK - 1) / BUILD_CHUNK;
+        IntStream range = IntStream.range(0, chunks);
+        if (table.length >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(this::fillChunk);
+    }
+
+    private static int[] uniformGrid(int inputs, int pointsPerInput) {
+        int[] grid = new int[inputs];
+        Arrays.fill(grid, pointsPerInput);
+        return grid;
+    }
+
+    private void fillChunk(int chunk) {
+        int from = chunk * BUILD_CHUNK;
+        int to = Math.min(table.length, from + BUILD_CHUNK);
+        int count = to - from;
+        double[][] columns = new double[gridPoints.length][count];
+        double[] out = new double[count];
+        for (int index = from; index < to; index++) {
+            for (int d = 0; d < gridPoints.length; d++) {
+                int coordinate = (index / strides[d]) % gridPoints[d];
+                columns[d][index - from] = gridValue(d, coordinate);
+            }
+        }
+        plan.evaluateBatch(columns, 0, count, out);
+        System.arraycopy(out, 0, table, from, count);
+    }
+
+    private double gridValue(int input, int coordinate) {
+        // Pin the last grid point to the exact upper bound
+        return coordinate == gridPoints[input] - 1
+                ? maxDomain[input]
+                : minDomain[input] + coordinate * spacing[input];
+    }
+
+    /**
+     * Approximates the system output by multilinear interpolation.
+     * Inputs are clamped to their domains like in the exact pipeline.
+     * The call allocates nothing.
+     * 
+     * @param inputs crisp input values, ordered as
+     *               {@link CompiledSystem#getInputNames()}
+     * @return interpolated crisp output
+     */
+    public double evaluate(double... inputs) {
+        int dimensions = gridPoints.length;
+        if (inputs.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " inputs but got " + inputs.length);
+        }
+
+        double[] fractions = fractionBuffers.get();
+        int base = 0;
+        for (int d = 0; d < dimensions; d++) {
+            double min = minDomain[d];
+            double max = maxDomain[d];
+            double value = inputs[d];
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                value = (min + max) / 2.0;
+            }
+            double position = (Math.max(min, Math.min(max, value)) - min) / spacing[d];
+            int cell = Math.min((int) position, gridPoints[d] - 2);
+            fractions[d] = Math.min(1.0, position - cell);
+            base += cell * strides[d];
+        }
+
+        // Sum the 2^n cell corners, each weighted by its multilinear coefficient
+        double result = 0.0;
+        for (int corner = 0; corner < (1 << dimensions); corner++) {
+            double weight = 1.0;
+            int index = base;
+            for (int d = 0; d < dimensions; d++) {
+                if ((corner & (1 << d)) != 0) {
+                    weight *= fractions[d];
+                    index += strides[d];
+                } else {
+                    weight *= 1.0 - fractions[d];
+                }
+            }
+            result += weight * table[index];
+        }
+        return result;
+    }
+
+    /**
+     * Measures the largest absolute difference between the table and the
+     * exact compiled pipeline over uniformly random points of the input space.
+     * 
+     * @param samples number of random points to compare
+     * @param seed    random seed, for reproducible reports
+     * @return maximum absolute interpolation error observed
+     */
+    public double measureMaxError(int samples, long seed) {
+        Random random = new Random(seed);
+        double[] inputs = new double[gridPoints.length];
+        double maxError = 0.0;
+        for (int i = 0; i < samples; i++) {
+            for (int d = 0; d < inputs.length; d++) {
+                inputs[d] = minDomain[d] + random.nextDouble() * (maxDomain[d] - minDomain[d]);
+            }
+            maxError = Math.max(maxError, Math.abs(evaluate(inputs) - plan.evaluate(inputs)));
+        }
+        return maxError;
+    }
+
+    public int getGridPoints(int input) {
+        return gridPoints[input];
+    }
+
+    public int getTableSize() {
+        return table.length;
+    }
+
+    public CompiledSystem getPlan() {
+        return plan;
+    }
+}
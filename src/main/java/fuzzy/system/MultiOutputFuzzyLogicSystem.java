@@ -0,0 +1,199 @@
+package fuzzy.system;
+
+import fuzzy.defuzzification.*;
+import fuzzy.inference.*;
+import fuzzy.operators.*;
+import fuzzy.rules.*;
+import fuzzy.variables.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fuzzy logic system with several output variables that share one set of
+ * inputs and one rule base. Each rule targets the output named by
+ * {@link Rule#getConsequentVariableName()}; rules naming an unknown output are
+ * ignored.
+ *
+ * An evaluation fuzzifies the inputs once, then infers and defuzzifies every
+ * output from that single fuzzification. Like {@link FuzzyLogicSystem}, each
+ * evaluation reads one rule base snapshot, inference engine and
+ * defuzzification method.
+ */
+public class MultiOutputFuzzyLogicSystem {
+    private final Map<String, LinguisticVariable> inputVariables;
+    private final Map<String, OutputDefuzzifier> outputs;
+    private final RuleBase ruleBase;
+    private final AtomicLong configVersion;
+    private volatile InferenceEngine inferenceEngine;
+    private volatile DefuzzificationMethod defuzzificationMethod;
+    private volatile RulePartition rulePartition;
+
+    public MultiOutputFuzzyLogicSystem() {
+        this.inputVariables = new LinkedHashMap<>();
+        this.outputs = new LinkedHashMap<>();
+        this.ruleBase = new RuleBase();
+        this.configVersion = new AtomicLong();
+        this.inferenceEngine = new MamdaniInference(
+                new MinTNorm(), new MaxSNorm(),
+                new MinImplication(),
+                new MaxAggregation());
+        this.defuzzificationMethod = new CentroidDefuzzification();
+    }
+
+    public void addInputVariable(LinguisticVariable variable) {
+        if (variable == null) {
+            throw new IllegalArgumentException("Input variable cannot be null");
+        }
+        inputVariables.put(variable.getName(), variable);
+        configVersion.incrementAndGet();
+    }
+
+    public void addOutputVariable(LinguisticVariable variable) {
+        if (variable == null) {
+            throw new IllegalArgumentException("Output variable cannot be null");
+        }
+        outputs.put(variable.getName(), new OutputDefuzzifier(variable));
+        configVersion.incrementAndGet();
+    }
+
+    public LinguisticVariable getInputVariable(String name) {
+        return inputVariables.get(name);
+    }
+
+    /**
+     * Gets all input variables in the order they were added.
+     */
+    public Collection<LinguisticVariable> getInputVariables() {
+        return Collections.unmodifiableCollection(inputVariables.values());
+    }
+
+    public LinguisticVariable getOutputVariable(String name) {
+        OutputDefuzzifier output = outputs.get(name);
+        return output == null ? null : output.getOutputVariable();
+    }
+
+    /**
+     * Gets all output variables in the order they were added.
+     */
+    public List<LinguisticVariable> getOutputVariables() {
+        List<LinguisticVariable> variables = new ArrayList<>();
+        for (OutputDefuzzifier output : outputs.values()) {
+            variables.add(output.getOutputVariable());
+        }
+        return variables;
+    }
+
+    public RuleBase getRuleBase() {
+        return ruleBase;
+    }
+
+    public void setInferenceEngine(InferenceEngine engine) {
+        this.inferenceEngine = engine;
+        configVersion.incrementAndGet();
+    }
+
+    public InferenceEngine getInferenceEngine() {
+        return inferenceEngine;
+    }
+
+    public void setDefuzzificationMethod(DefuzzificationMethod method) {
+        this.defuzzificationMethod = method;
+        configVersion.incrementAndGet();
+    }
+
+    public DefuzzificationMethod getDefuzzificationMethod() {
+        return defuzzificationMethod;
+    }
+
+    /**
+     * Gets a version number that increases whenever the rule base, a variable,
+     * the inference engine or the defuzzification method is changed through
+     * this system or its {@link RuleBase}.
+     */
+    public long getVersion() {
+        return ruleBase.getVersion() + configVersion.get();
+    }
+
+    /**
+     * Complete evaluation pipeline for all outputs: fuzzify once, then infer
+     * and defuzzify each output.
+     *
+     * @param crispInputs map of input variable names to crisp values
+     * @return map of output variable names to crisp values, in the order the
+     *         outputs were added
+     */
+    public Map<String, Double> evaluate(Map<String, Double> crispInputs) {
+        InferenceEngine engine = inferenceEngine;
+        DefuzzificationMethod method = defuzzificationMethod;
+        Map<String, List<Rule>> rules = rulesByOutput();
+        Map<String, Map<String, Double>> fuzzifiedInputs = fuzzify(crispInputs);
+
+        Map<String, Double> results = new LinkedHashMap<>();
+        for (OutputDefuzzifier output : outputs.values()) {
+            String name = output.getOutputVariable().getName();
+            Map<String, Double> inferredOutput = engine.infer(
+                    rules.getOrDefault(name, Collections.emptyList()), fuzzifiedInputs,
+                    output.getOutputVariable());
+            results.put(name, output.defuzzify(inferredOutput, engine, method));
+        }
+        return results;
+    }
+
+    /**
+     * Fuzzification step: converts crisp inputs to membership degrees.
+     *
+     * @param crispInputs map of input variable names to crisp values
+     * @return map of variable names to fuzzy set names to membership degrees
+     */
+    public Map<String, Map<String, Double>> fuzzify(Map<String, Double> crispInputs) {
+        return FuzzyLogicSystem.fuzzify(inputVariables, crispInputs);
+    }
+
+    /**
+     * Gets intermediate inference results for debugging/visualization.
+     *
+     * @return map of output variable names to inference results
+     */
+    public Map<String, Map<String, Double>> getInferenceResults(Map<String, Double> crispInputs) {
+        InferenceEngine engine = inferenceEngine;
+        Map<String, List<Rule>> rules = rulesByOutput();
+        Map<String, Map<String, Double>> fuzzifiedInputs = fuzzify(crispInputs);
+
+        Map<String, Map<String, Double>> results = new LinkedHashMap<>();
+        for (OutputDefuzzifier output : outputs.values()) {
+            String name = output.getOutputVariable().getName();
+            results.put(name, engine.infer(rules.getOrDefault(name, Collections.emptyList()),
+                    fuzzifiedInputs, output.getOutputVariable()));
+        }
+        return results;
+    }
+
+    /**
+     * Groups the enabled rules of the current snapshot by consequent variable,
+     * reusing the grouping until the rule base changes.
+     */
+    private Map<String, List<Rule>> rulesByOutput() {
+        RuleBaseSnapshot rules = ruleBase.snapshot();
+        RulePartition current = rulePartition;
+        if (current == null || current.version != rules.getVersion()) {
+            current = new RulePartition(rules);
+            rulePartition = current;
+        }
+        return current.rulesByOutput;
+    }
+
+    private static final class RulePartition {
+        final long version;
+        final Map<String, List<Rule>> rulesByOutput;
+
+        RulePartition(RuleBaseSnapshot snapshot) {
+            this.version = snapshot.getVersion();
+            Map<String, List<Rule>> groups = new HashMap<>();
+            for (Rule rule : snapshot.getEnabledRules()) {
+                groups.computeIfAbsent(rule.getConsequentVariableName(), name -> new ArrayList<>()).add(rule);
+            }
+            this.rulesByOutput = groups;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package fuzzy.system;
+
+import fuzzy.defuzzification.AggregatedCurve;
+import fuzzy.defuzzification.DefuzzificationMethod;
+import fuzzy.defuzzification.MamdaniAggregatedSet;
+import fuzzy.defuzzification.OutputSampleCache;
+import fuzzy.inference.InferenceEngine;
+import fuzzy.inference.MamdaniInference;
+import fuzzy.inference.SugenoInference;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.operators.ImplicationOperator;
+import fuzzy.variables.FuzzySet;
+import fuzzy.variables.LinguisticVariable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the inference result for one output variable into a crisp value,
+ * keeping the sampled output set memberships cached between evaluations.
+ */
+final class OutputDefuzzifier {
+    private final LinguisticVariable outputVariable;
+    private volatile OutputSampleCache sampleCache;
+
+    OutputDefuzzifier(LinguisticVariable outputVariable) {
+        this.outputVariable = outputVariable;
+    }
+
+    LinguisticVariable getOutputVariable() {
+        return outputVariable;
+    }
+
+    /**
+     * @param inferredOutput map of output fuzzy set names to membership degrees
+     *                       (Mamdani) or crisp values (Sugeno)
+     * @return crisp output value
+     */
+    double defuzzify(Map<String, Double> inferredOutput, InferenceEngine engine,
+            DefuzzificationMethod method) {
+        if (engine instanceof SugenoInference) {
+            return inferredOutput.getOrDefault("output", 0.0);
+        }
+
+        return method.defuzzify(aggregate(inferredOutput, engine));
+    }
+
+    /**
+     * Applies several methods to one inference result. The aggregated set is
+     * sampled once into an {@link AggregatedCurve} that every method reads.
+     *
+     * @return one crisp value per method
+     */
+    double[] defuzzifyAll(Map<String, Double> inferredOutput, InferenceEngine engine,
+            DefuzzificationMethod[] methods) {
+        double[] out = new double[methods.length];
+        if (engine instanceof SugenoInference) {
+            Arrays.fill(out, inferredOutput.getOrDefault("output", 0.0));
+            return out;
+        }
+        AggregatedCurve curve = new AggregatedCurve(aggregate(inferredOutput, engine),
+                AggregatedCurve.DEFAULT_SAMPLES);
+        for (int m = 0; m < methods.length; m++) {
+            out[m] = methods[m].defuzzify(curve);
+        }
+        return out;
+    }
+
+    private MamdaniAggregatedSet aggregate(Map<String, Double> inferredOutput, InferenceEngine engine) {
+        ImplicationOperator implication = engine instanceof MamdaniInference
+                ? ((MamdaniInference) engine).getImplicationOperator()
+                : (strength, mu) -> mu;
+        List<FuzzySet> outputFuzzySets = new ArrayList<>(outputVariable.getAllFuzzySets());
+        MembershipFunction[] outputSets = new MembershipFunction[outputFuzzySets.size()];
+        double[] strengths = new double[outputSets.length];
+        for (int i = 0; i < outputSets.length; i++) {
+            FuzzySet fuzzySet = outputFuzzySets.get(i);
+            outputSets[i] = fuzzySet.getMembershipFunction();
+            strengths[i] = inferredOutput.getOrDefault(fuzzySet.getName(), 0.0);
+        }
+
+        double minDomain = outputVariable.getMinDomain();
+        double maxDomain = outputVariable.getMaxDomain();
+        OutputSampleCache cache = sampleCache;
+        if (cache == null || !cache.matches(outputSets, minDomain, maxDomain)) {
+            cache = new OutputSampleCache(outputSets, minDomain, maxDomain);
+            sampleCache = cache;
+        }
+
+        return new MamdaniAggregatedSet(outputSets, strengths, implication,
+                minDomain, maxDomain, cache);
+    }
+}
@@ -0,0 +1,100 @@
+package fuzzy.system;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Scores large columnar batches on a {@link ForkJoinPool}.
+ * The input range is split into chunks that are evaluated independently
+ * against an immutable {@link CompiledSystem}; every chunk allocates its own
+ * scratch buffers, so workers share no mutable state. The plan's operators
+ * and defuzzification method must themselves be stateless, as all built-in
+ * ones are.
+ */
+public class ParallelBatchEvaluator {
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final CompiledSystem plan;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelBatchEvaluator(CompiledSystem plan) {
+        this(plan, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelBatchEvaluator(CompiledSystem plan, ForkJoinPool pool) {
+        this(plan, pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param plan      compiled system to evaluate
+     * @param pool      pool that runs the chunks
+     * @param chunkSize maximum number of records evaluated by one task
+     */
+    public ParallelBatchEvaluator(CompiledSystem plan, ForkJoinPool pool, int chunkSize) {
+        if (plan == null || pool == null) {
+            throw new IllegalArgumentException("Plan and pool cannot be null");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.plan = plan;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Evaluates every record of a columnar batch in parallel.
+     *
+     * @param columns one column of crisp values per input, ordered as
+     *                {@link CompiledSystem#getInputNames()}
+     * @param out     receives one crisp output per record
+     */
+    public void evaluateBatch(double[][] columns, double[] out) {
+        if (columns.length != plan.getInputCount()) {
+            throw new IllegalArgumentException("Expected " + plan.getInputCount() + " columns but got "
+                    + columns.length);
+        }
+        for (double[] column : columns) {
+            if (column.length < out.length) {
+                throw new IndexOutOfBoundsException("Column shorter than output");
+            }
+        }
+        pool.invoke(new BatchTask(columns, 0, out.length, out));
+    }
+
+    public CompiledSystem getPlan() {
+        return plan;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] columns;
+        private final int from;
+        private final int to;
+        private final double[] out;
+
+        BatchTask(double[][] columns, int from, int to, double[] out) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.out = out;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                plan.evaluateBatch(columns, from, to, out);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchTask(columns, from, middle, out),
+                    new BatchTask(columns, middle, to, out));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package fuzzy.system;
+
+import fuzzy.defuzzification.AggregatedCurve;
+import fuzzy.defuzzification.MamdaniAggregatedSet;
+
+/**
+ * Per-thread working buffers for evaluating a {@link CompiledSystem}.
+ */
+final class PlanScratch {
+    final double[] memberships;
+    final int[] activeSets; // slots with non-zero membership; all other slots hold 0.0
+    int activeCount;
+    final int[] setCandidates;
+    final double[] strengths;
+    final StrengthBuffer strengthBuffer; // null for max aggregation and Sugeno plans
+    final int[] ruleHits;
+    final int[] candidates;
+    final MamdaniAggregatedSet aggregatedSet;
+    private AggregatedCurve curve; // created on first multi-method evaluation
+
+    PlanScratch(int slots, int rules, double[] strengths, StrengthBuffer strengthBuffer,
+            MamdaniAggregatedSet aggregatedSet) {
+        this.memberships = new double[slots + 1];
+        this.activeSets = new int[slots];
+        this.setCandidates = new int[slots];
+        this.strengths = strengths;
+        this.strengthBuffer = strengthBuffer;
+        this.ruleHits = new int[rules];
+        this.candidates = new int[rules];
+        this.aggregatedSet = aggregatedSet;
+    }
+
+    AggregatedCurve curve() {
+        if (curve == null) {
+            curve = new AggregatedCurve();
+        }
+        return curve;
+    }
+}
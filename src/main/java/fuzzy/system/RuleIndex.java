@@ -0,0 +1,118 @@
+package fuzzy.system;
+
+import java.util.Arrays;
+
+/**
+ * Inverted index from input fuzzy set slots to the compiled rules that
+ * reference them. It lets inference visit only rules that can fire: a rule
+ * with no active term yields zero under any t-norm and s-norm, and a rule
+ * joined only by AND needs every term active.
+ */
+final class RuleIndex {
+    private final int[] ruleStart;
+    private final int[] setRuleStart; // per set slot, into setRules; length = slots + 1
+    private final int[] setRules;
+    private final boolean[] andOnly;
+    private final int[] unconditionalRules; // rules with an empty antecedent
+
+    RuleIndex(int slots, int[] ruleStart, int[] termSet, boolean[] termAnd) {
+        int rules = ruleStart.length - 1;
+        this.ruleStart = ruleStart;
+        this.setRuleStart = new int[slots + 1];
+        this.andOnly = new boolean[rules];
+
+        int unconditional = 0;
+        for (int r = 0; r < rules; r++) {
+            andOnly[r] = true;
+            for (int t = ruleStart[r] + 1; t < ruleStart[r + 1]; t++) {
+                andOnly[r] &= termAnd[t];
+            }
+            if (ruleStart[r] == ruleStart[r + 1]) {
+                unconditional++;
+            }
+            for (int t = ruleStart[r]; t < ruleStart[r + 1]; t++) {
+                if (termSet[t] < slots) {
+                    setRuleStart[termSet[t] + 1]++;
+                }
+            }
+        }
+        for (int s = 0; s < slots; s++) {
+            setRuleStart[s + 1] += setRuleStart[s];
+        }
+
+        this.setRules = new int[setRuleStart[slots]];
+        this.unconditionalRules = new int[unconditional];
+        int[] fill = Arrays.copyOf(setRuleStart, slots);
+        unconditional = 0;
+        for (int r = 0; r < rules; r++) {
+            if (ruleStart[r] == ruleStart[r + 1]) {
+                unconditionalRules[unconditional++] = r;
+            }
+            for (int t = ruleStart[r]; t < ruleStart[r + 1]; t++) {
+                if (termSet[t] < slots) {
+                    setRules[fill[termSet[t]]++] = r;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects, in ascending order, the rules that can fire given the active
+     * set slots.
+     *
+     * @param activeSets  slots with non-zero membership
+     * @param activeCount number of entries in activeSets
+     * @param hits        per-rule counters, all zero on entry and on return
+     * @param candidates  receives the rule ids
+     * @return number of rules written to candidates
+     */
+    int collect(int[] activeSets, int activeCount, int[] hits, int[] candidates) {
+        int count = 0;
+        for (int r : unconditionalRules) {
+            candidates[count++] = r;
+        }
+        for (int a = 0; a < activeCount; a++) {
+            int set = activeSets[a];
+            for (int k = setRuleStart[set]; k < setRuleStart[set + 1]; k++) {
+                int rule = setRules[k];
+                if (hits[rule]++ == 0) {
+                    candidates[count++] = rule;
+                }
+            }
+        }
+
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int rule = candidates[i];
+            int activeTerms = hits[rule];
+            hits[rule] = 0;
+            if (andOnly[rule] && activeTerms < ruleStart[rule + 1] - ruleStart[rule]) {
+                continue;
+            }
+            candidates[kept++] = rule;
+        }
+        Arrays.sort(candidates, 0, kept);
+        return kept;
+    }
+
+    /**
+     * Checks whether a rule can fire when only the flagged slots are active.
+     */
+    boolean canFire(int rule, int[] termSet, boolean[] activeSlots) {
+        int start = ruleStart[rule];
+        int end = ruleStart[rule + 1];
+        if (start == end) {
+            return true;
+        }
+        for (int t = start; t < end; t++) {
+            boolean active = activeSlots[termSet[t]];
+            if (andOnly[rule] && !active) {
+                return false;
+            }
+            if (!andOnly[rule] && active) {
+                return true;
+            }
+        }
+        return andOnly[rule];
+    }
+}
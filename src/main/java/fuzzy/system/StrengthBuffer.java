@@ -0,0 +1,86 @@
+package fuzzy.system;
+
+import fuzzy.operators.AggregationOperator;
+
+import java.util.Arrays;
+
+/**
+ * Collects the positive firing strengths of each Mamdani output set in rule
+ * order, so that an aggregation operator other than
+ * {@link fuzzy.operators.MaxAggregation} is called once per fired set with
+ * all of them, as {@link fuzzy.inference.MamdaniInference} does. Folding one
+ * rule at a time is only equivalent for associative operators.
+ *
+ * The argument arrays passed to the operator are reused between calls, one
+ * per length. An instance is meant for one thread at a time.
+ */
+final class StrengthBuffer {
+    private final AggregationOperator operator;
+    private final int[] setStart; // per output set, into values and setRules; length = sets + 1
+    private final int[] setRules; // rules concluding each set, ascending
+    private final int[] counts; // per output set
+    private final double[] values;
+    private double[][] arguments = new double[1][]; // by length
+
+    StrengthBuffer(AggregationOperator operator, int[] setStart, int[] setRules) {
+        this.operator = operator;
+        this.setStart = setStart;
+        this.setRules = setRules;
+        this.counts = new int[setStart.length - 1];
+        this.values = new double[setStart[setStart.length - 1]];
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    /**
+     * Appends a positive firing strength of a rule concluding a set. Rules
+     * must be added in ascending order.
+     */
+    void add(int set, double firingStrength) {
+        values[setStart[set] + counts[set]++] = firingStrength;
+    }
+
+    /**
+     * Writes the aggregated strength of every set collected since
+     * {@link #clear()}, or 0 for sets without a positive firing strength.
+     */
+    void aggregateInto(double[] strengths) {
+        for (int set = 0; set < counts.length; set++) {
+            strengths[set] = aggregate(set, counts[set]);
+        }
+    }
+
+    /**
+     * Aggregates the positive strengths, indexed by rule, of the rules
+     * concluding one set.
+     */
+    double aggregateRules(int set, double[] ruleStrengths) {
+        int count = 0;
+        for (int k = setStart[set]; k < setStart[set + 1]; k++) {
+            double firingStrength = ruleStrengths[setRules[k]];
+            if (firingStrength > 0) {
+                values[setStart[set] + count++] = firingStrength;
+            }
+        }
+        counts[set] = count;
+        return aggregate(set, count);
+    }
+
+    private double aggregate(int set, int count) {
+        if (count == 0) {
+            return 0.0;
+        }
+        if (count >= arguments.length) {
+            arguments = Arrays.copyOf(arguments, Math.max(count + 1, 2 * arguments.length));
+        }
+        double[] argument = arguments[count];
+        if (argument == null) {
+            argument = new double[count];
+            arguments[count] = argument;
+        }
+        System.arraycopy(values, setStart[set], argument, 0, count);
+        return operator.aggregate(argument);
+    }
+}
@@ -1,5 +1,8 @@
 package fuzzy.variables;
 
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.SupportIndex;
+
 import java.util.*;
 
 /**
@@ -7,10 +10,12 @@ import java.util.*;
  * sets.
  */
 public class LinguisticVariable {
+
     private final String name;
     private final double minDomain;
     private final double maxDomain;
     private final Map<String, FuzzySet> fuzzySets;
+    private volatile Partition partition; // rebuilt lazily after fuzzy sets change
 
     public LinguisticVariable(String name, double minDomain, double maxDomain) {
         if (name == null || name.trim().isEmpty()) {
@@ -33,6 +38,7 @@ public class LinguisticVariable {
             throw new IllegalArgumentException("Fuzzy set cannot be null");
         }
         fuzzySets.put(fuzzySet.getName(), fuzzySet);
+        partition = null;
     }
 
     /**
@@ -49,6 +55,44 @@ public class LinguisticVariable {
         return fuzzySets.values();
     }
 
+    /**
+     * Calculates the non-zero membership degrees of a crisp value. For
+     * variables with many fuzzy sets only the sets whose support contains the
+     * value are evaluated.
+     *
+     * @param x crisp value, already validated
+     * @return map of fuzzy set names to non-zero membership degrees
+     */
+    public Map<String, Double> fuzzify(double x) {
+        Partition current = partition;
+        if (current == null) {
+            current = new Partition(fuzzySets.values().toArray(new FuzzySet[0]));
+            partition = current;
+        }
+
+        Map<String, Double> memberships = new HashMap<>();
+        FuzzySet[] sets = current.sets;
+        if (current.index == null) {
+            for (FuzzySet fuzzySet : sets) {
+                addMembership(fuzzySet, x, memberships);
+            }
+        } else {
+            int[] candidates = new int[sets.length];
+            int found = current.index.findCandidates(x, candidates, 0);
+            for (int k = 0; k < found; k++) {
+                addMembership(sets[candidates[k]], x, memberships);
+            }
+        }
+        return memberships;
+    }
+
+    private static void addMembership(FuzzySet fuzzySet, double x, Map<String, Double> memberships) {
+        double membership = fuzzySet.getMembership(x);
+        if (membership > 0) {
+            memberships.put(fuzzySet.getName(), membership);
+        }
+    }
+
     /**
      * Validates and clamps an input value to the domain.
      */
@@ -74,4 +118,25 @@ public class LinguisticVariable {
     public int getFuzzySetCount() {
         return fuzzySets.size();
     }
+
+    /**
+     * Fuzzy sets in insertion order with their support index.
+     */
+    private static final class Partition {
+        final FuzzySet[] sets;
+        final SupportIndex index; // null for small partitions
+
+        Partition(FuzzySet[] sets) {
+            this.sets = sets;
+            if (sets.length < SupportIndex.MIN_INDEXED_SETS) {
+                this.index = null;
+            } else {
+                MembershipFunction[] functions = new MembershipFunction[sets.length];
+                for (int i = 0; i < sets.length; i++) {
+                    functions[i] = sets[i].getMembershipFunction();
+                }
+                this.index = new SupportIndex(functions);
+            }
+        }
+    }
 }
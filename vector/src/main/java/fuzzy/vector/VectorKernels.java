@@ -0,0 +1,160 @@
+package fuzzy.vector;
+
+import fuzzy.membership.ArrayKernels;
+import fuzzy.membership.GaussianMF;
+import fuzzy.membership.MembershipFunction;
+import fuzzy.membership.ScalarKernels;
+import fuzzy.membership.TrapezoidalMF;
+import fuzzy.membership.TriangularMF;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ArrayKernels} built on the incubating Vector API. Triangular,
+ * trapezoidal and Gaussian functions are evaluated a full vector of points at
+ * a time; other functions and loop tails use {@link ScalarKernels}.
+ *
+ * Triangular and trapezoidal results equal
+ * {@link MembershipFunction#calculate(double)} exactly, as reported by
+ * {@link #isExact}. Gaussian results and centroid sums may differ in the last
+ * bits, because the vector exponential and the lane-wise summation order
+ * differ from the scalar code.
+ *
+ * The JVM must be started with {@code --add-modules jdk.incubator.vector};
+ * otherwise {@link ArrayKernels#get()} falls back to the scalar kernels.
+ */
+public final class VectorKernels implements ArrayKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private final ScalarKernels scalar = new ScalarKernels();
+    private final DoubleVector iota;
+
+    public VectorKernels() {
+        double[] indices = new double[LANES];
+        for (int i = 0; i < LANES; i++) {
+            indices[i] = i;
+        }
+        this.iota = DoubleVector.fromArray(SPECIES, indices, 0);
+    }
+
+    /**
+     * Gets the number of doubles processed per vector operation.
+     */
+    public int getLaneCount() {
+        return LANES;
+    }
+
+    /**
+     * Returns true for triangular and trapezoidal functions (but not
+     * subclasses, which may override the formula) and for functions that are
+     * not vectorised.
+     */
+    @Override
+    public boolean isExact(MembershipFunction function) {
+        return !isVectorized(function) || function.getClass() == TriangularMF.class
+                || function.getClass() == TrapezoidalMF.class;
+    }
+
+    @Override
+    public void calculate(MembershipFunction function, double[] xs, int offset, int length, double[] out,
+            int outOffset) {
+        if (!isVectorized(function)) {
+            scalar.calculate(function, xs, offset, length, out, outOffset);
+            return;
+        }
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, xs, offset + i);
+            evaluate(function, x).intoArray(out, outOffset + i);
+        }
+        scalar.calculate(function, xs, offset + bound, length - bound, out, outOffset + bound);
+    }
+
+    @Override
+    public void sample(MembershipFunction function, double minDomain, double step, int count, double[] out) {
+        if (!isVectorized(function)) {
+            scalar.sample(function, minDomain, step, count, out);
+            return;
+        }
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += LANES) {
+            evaluate(function, samplePoints(i, minDomain, step)).intoArray(out, i);
+        }
+        for (int i = bound; i < count; i++) {
+            out[i] = function.calculate(minDomain + i * step);
+        }
+    }
+
+    @Override
+    public void centroidSums(double[] memberships, int count, double minDomain, double step, double[] sums) {
+        DoubleVector numerator = DoubleVector.zero(SPECIES);
+        DoubleVector denominator = DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(count);
+        for (int i = 0; i < bound; i += LANES) {
+            DoubleVector mu = DoubleVector.fromArray(SPECIES, memberships, i);
+            numerator = numerator.add(samplePoints(i, minDomain, step).mul(mu));
+            denominator = denominator.add(mu);
+        }
+        double numeratorSum = numerator.reduceLanes(VectorOperators.ADD);
+        double denominatorSum = denominator.reduceLanes(VectorOperators.ADD);
+        for (int i = bound; i < count; i++) {
+            double mu = memberships[i];
+            numeratorSum += (minDomain + i * step) * mu;
+            denominatorSum += mu;
+        }
+        sums[0] = numeratorSum;
+        sums[1] = denominatorSum;
+    }
+
+    /**
+     * Computes minDomain + (first + lane) * step in each lane, as the scalar
+     * kernels do.
+     */
+    private DoubleVector samplePoints(int first, double minDomain, double step) {
+        return iota.add(first).mul(step).add(minDomain);
+    }
+
+    private static boolean isVectorized(MembershipFunction function) {
+        return function instanceof TriangularMF || function instanceof TrapezoidalMF
+                || function instanceof GaussianMF;
+    }
+
+    private static DoubleVector evaluate(MembershipFunction function, DoubleVector x) {
+        if (function instanceof TriangularMF) {
+            TriangularMF mf = (TriangularMF) function;
+            return triangular(x, mf.getA(), mf.getB(), mf.getC());
+        } else if (function instanceof TrapezoidalMF) {
+            TrapezoidalMF mf = (TrapezoidalMF) function;
+            return trapezoidal(x, mf.getA(), mf.getB(), mf.getC(), mf.getD());
+        }
+        GaussianMF mf = (GaussianMF) function;
+        return gaussian(x, mf.getCenter(), mf.getWidth());
+    }
+
+    private static DoubleVector triangular(DoubleVector x, double a, double b, double c) {
+        DoubleVector rising = x.sub(a).div(b - a);
+        DoubleVector falling = x.broadcast(c).sub(x).div(c - b);
+        DoubleVector mu = falling.blend(rising, x.compare(VectorOperators.LT, b));
+        mu = mu.blend(1.0, x.compare(VectorOperators.EQ, b));
+        VectorMask<Double> outside = x.compare(VectorOperators.LE, a).or(x.compare(VectorOperators.GE, c));
+        return mu.blend(0.0, outside);
+    }
+
+    private static DoubleVector trapezoidal(DoubleVector x, double a, double b, double c, double d) {
+        DoubleVector rising = x.sub(a).div(b - a);
+        DoubleVector falling = x.broadcast(d).sub(x).div(d - c);
+        DoubleVector mu = falling.blend(rising, x.compare(VectorOperators.LT, b));
+        VectorMask<Double> top = x.compare(VectorOperators.GE, b).and(x.compare(VectorOperators.LE, c));
+        mu = mu.blend(1.0, top);
+        VectorMask<Double> outside = x.compare(VectorOperators.LE, a).or(x.compare(VectorOperators.GE, d));
+        return mu.blend(0.0, outside);
+    }
+
+    private static DoubleVector gaussian(DoubleVector x, double center, double width) {
+        DoubleVector z = x.sub(center).div(width);
+        return z.mul(z).mul(-0.5).lanewise(VectorOperators.EXP);
+    }
+}